@@ -0,0 +1,72 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookCursor;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+
+/**
+ * Caminhos de leitura do {@code BookServiceImpl}: busca por isbn (com e sem o
+ * cache na frente), busca por exemplo pelo índice em memória e pelo banco, e
+ * a primeira página por cursor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private int next;
+
+    @Benchmark
+    public Optional<Book> getBookByIsbn(LibraryState library) {
+        return library.bookService.getBookByIsbn(library.dataset.isbn(next(library)));
+    }
+
+    @Benchmark
+    public Optional<Book> findByIsbnRepository(LibraryState library) {
+        return library.bookRepository.findByIsbn(library.dataset.isbn(next(library)));
+    }
+
+    @Benchmark
+    public Page<Book> findByExampleIndexed(LibraryState library) {
+        Book filter = Book.builder().author(library.dataset.author(next(library))).build();
+        return library.bookService.find(filter, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Page<Book> findByExampleDatabase(LibraryState library) {
+        // Página ordenada: o índice em memória recusa e a busca cai no banco.
+        Book filter = Book.builder().author(library.dataset.author(next(library))).build();
+        return library.bookService.find(filter, PageRequest.of(0, PAGE_SIZE, Sort.by("title")));
+    }
+
+    @Benchmark
+    public Slice<Book> findFirstPageByCursor(LibraryState library) {
+        return library.bookService.findAfter(BookCursor.first(BookCursor.SORT_BY_TITLE), PAGE_SIZE);
+    }
+
+    private int next(LibraryState library) {
+        next = (next + 7919) % library.books;
+        return next;
+    }
+}
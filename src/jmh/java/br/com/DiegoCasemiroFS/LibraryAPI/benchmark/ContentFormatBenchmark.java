@@ -0,0 +1,123 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.PageDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.json.BookDtoSerializer;
+import br.com.DiegoCasemiroFS.LibraryAPI.json.PageDtoSerializer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Codifica e decodifica uma página de livros em JSON, CBOR e Smile, com os
+ * mesmos serializadores da API. Os livros vêm do {@link DatasetGenerator}, com
+ * títulos, autores e ISBN-13 do tamanho dos reais.
+ * <p>
+ * A decodificação lê para {@link BookPage}, como faria um cliente tipado. O
+ * tamanho da página em cada formato vai para o log no fim do trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Slf4j
+public class ContentFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper mapper;
+    private PageDto<BookDto> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .modulesToInstall(new SimpleModule()
+                        .addSerializer(PageDto.class, new PageDtoSerializer())
+                        .addSerializer(BookDto.class, new BookDtoSerializer()))
+                .build();
+
+        DatasetGenerator dataset = new DatasetGenerator(LibraryState.SEED, 10_000, 0, 0);
+        List<BookDto> books = new ArrayList<>(pageSize);
+        for (int index = 0; index < pageSize; index++) {
+            books.add(BookDto.builder()
+                    .id(dataset.bookId(index))
+                    .title(dataset.title(index))
+                    .author(dataset.author(index))
+                    .isbn(dataset.isbn(index))
+                    .build());
+        }
+        page = PageDto.of(new PageImpl<>(books, PageRequest.of(0, pageSize), dataset.books()), book -> book);
+        encoded = encode();
+    }
+
+    @TearDown
+    public void logSize() {
+        log.info("bytes por página: {}/{}={}", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public BookPage decode() throws IOException {
+        return mapper.readValue(encoded, BookPage.class);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    /**
+     * Lado do cliente: o envelope de {@link PageDto} lido de volta.
+     */
+    public static class BookPage {
+
+        public List<BookDto> content;
+        public int page;
+        public int size;
+        public long totalElements;
+        public int totalPages;
+    }
+}
@@ -0,0 +1,287 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import javax.sql.DataSource;
+
+/**
+ * Gera um acervo sintético, determinístico para a mesma semente, e o grava
+ * por JDBC em lotes, sem passar pelo Hibernate.
+ * <p>
+ * Tudo o que descreve o livro {@code i} (isbn, título, autor, se está
+ * emprestado) é função de {@code (seed, i)}, então os benchmarks escolhem
+ * livros existentes sem guardar listas de milhões de linhas:
+ * <ul>
+ * <li>isbns ISBN-13 válidos, com prefixo 978 e grupos de registro na
+ * proporção aproximada de um acervo brasileiro (85 e 65 para o Brasil, 0 e 1
+ * para inglês, alguns europeus), únicos por construção;</li>
+ * <li>títulos de duas a cinco palavras de um vocabulário em que poucas
+ * palavras são muito comuns, e autores com produção desigual;</li>
+ * <li>empréstimos concentrados em poucos livros (lei de potência), devolvidos,
+ * mais um empréstimo aberto em uma fração fixa dos livros.</li>
+ * </ul>
+ */
+final class DatasetGenerator {
+
+    static final int MAX_BOOKS = 10_000_000;
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int HISTORY_DAYS = 3 * 365;
+    private static final double TITLE_SKEW = 1.2;
+    private static final double AUTHOR_SKEW = 1.1;
+    private static final double POPULARITY_SKEW = 1.1;
+    private static final long ITEM_MULTIPLIER = 7_654_321L;
+    private static final long[] RANK_MULTIPLIERS = {1_000_003L, 1_000_033L};
+
+    private static final String[] GROUPS = {"85", "65", "0", "1", "84", "2", "3"};
+    private static final int[] GROUP_WEIGHTS = {30, 10, 25, 20, 7, 5, 3};
+
+    private static final String[] WORDS = {
+            "o", "a", "de", "do", "da", "livro", "vida", "noite", "mar", "casa", "tempo", "amor", "guerra",
+            "história", "cidade", "sertão", "rio", "memórias", "viagem", "segredo", "sombra", "luz", "caminho",
+            "terra", "céu", "fogo", "pedra", "jardim", "estrela", "sonho", "silêncio", "janela", "ponte", "ilha",
+            "lua", "sol", "vento", "chuva", "floresta", "montanha", "deserto", "inverno", "verão", "outono",
+            "primavera", "manhã", "tarde", "relógio", "espelho", "carta", "diário", "retrato", "máscara", "labirinto",
+            "reino", "império", "república", "revolução", "algoritmos", "dados", "sistemas", "programação",
+            "arquitetura", "economia", "filosofia", "física", "química", "biologia", "direito", "medicina"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Ana", "Maria", "José", "João", "Antônio", "Francisca", "Carlos", "Paulo", "Pedro", "Lucas",
+            "Luiz", "Marcos", "Luís", "Gabriel", "Rafael", "Clarice", "Jorge", "Cecília", "Machado", "Rachel",
+            "Graciliano", "Lygia", "Érico", "Carolina", "Conceição", "Raduan", "Hilda", "Ariano", "Adélia", "Milton"
+    };
+    private static final String[] LAST_NAMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+            "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas"
+    };
+
+    private final long seed;
+    private final int books;
+    private final double loansPerBook;
+    private final double openLoanRatio;
+    private final int authors;
+    private final int customers;
+    private final long rankMultiplier;
+    private final LocalDate today = LocalDate.now();
+
+    DatasetGenerator(long seed, int books, double loansPerBook, double openLoanRatio) {
+        if (books < 1 || books > MAX_BOOKS) {
+            throw new IllegalArgumentException("books deve estar entre 1 e " + MAX_BOOKS);
+        }
+        this.seed = seed;
+        this.books = books;
+        this.loansPerBook = loansPerBook;
+        this.openLoanRatio = openLoanRatio;
+        this.authors = Math.max(1, books / 20);
+        this.customers = Math.max(1, books / 10);
+        // Primo que não divide books: a multiplicação é uma permutação dos índices.
+        this.rankMultiplier = books % RANK_MULTIPLIERS[0] != 0 ? RANK_MULTIPLIERS[0] : RANK_MULTIPLIERS[1];
+    }
+
+    int books() {
+        return books;
+    }
+
+    long bookId(int index) {
+        return index + 1L;
+    }
+
+    String isbn(int index) {
+        SplittableRandom random = random(index, 1);
+        int group = weighted(random, GROUP_WEIGHTS);
+        String prefix = "978" + GROUPS[group];
+        int itemDigits = 12 - prefix.length();
+        long modulus = pow10(itemDigits);
+        // Multiplicador coprimo com 10: bijeção em [0, 10^n), então índices
+        // distintos no mesmo grupo nunca repetem o número do item.
+        long item = Math.floorMod(index * ITEM_MULTIPLIER + seed, modulus);
+        String body = prefix + String.format("%0" + itemDigits + "d", item);
+        return body + checkDigit(body);
+    }
+
+    String title(int index) {
+        SplittableRandom random = random(index, 2);
+        int length = 2 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            String word = WORDS[powerLaw(random, WORDS.length, TITLE_SKEW)];
+            if (i == 0) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            } else {
+                title.append(' ');
+            }
+            title.append(word);
+        }
+        return title.toString();
+    }
+
+    String author(int index) {
+        return authorName(powerLaw(random(index, 3), authors, AUTHOR_SKEW));
+    }
+
+    /**
+     * Autor de um livro qualquer com o nome dado pelo ranking; o ranking 0 é o
+     * autor com mais livros.
+     */
+    String authorName(int rank) {
+        int combinations = FIRST_NAMES.length * LAST_NAMES.length;
+        String name = FIRST_NAMES[rank % FIRST_NAMES.length] + " "
+                + LAST_NAMES[(rank / FIRST_NAMES.length) % LAST_NAMES.length];
+        return rank < combinations ? name : name + " " + (rank / combinations + 1);
+    }
+
+    boolean hasOpenLoan(int index) {
+        return random(index, 4).nextDouble() < openLoanRatio;
+    }
+
+    /**
+     * Índice do livro na posição {@code rank} do ranking de popularidade.
+     */
+    int popular(int rank) {
+        return (int) Math.floorMod(rank * rankMultiplier + seed, (long) books);
+    }
+
+    void load(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                insertBooks(connection);
+                long loans = insertLoans(connection);
+                try (Statement statement = connection.createStatement()) {
+                    // Sequências com folga acima dos ids gerados: o otimizador pooled
+                    // do Hibernate usa o valor lido como limite superior do bloco.
+                    statement.execute("alter sequence book_seq restart with " + (books + 100L));
+                    statement.execute("alter sequence loan_seq restart with " + (loans + 100L));
+                    statement.execute("analyze");
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void insertBooks(Connection connection) throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into book (id, title, author, isbn, version, updated_at) values (?, ?, ?, ?, 0, ?)")) {
+            for (int index = 0; index < books; index++) {
+                insert.setLong(1, bookId(index));
+                insert.setString(2, title(index));
+                insert.setString(3, author(index));
+                insert.setString(4, isbn(index));
+                insert.setTimestamp(5, now);
+                insert.addBatch();
+                flushIfFull(connection, insert, index + 1);
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private long insertLoans(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long history = Math.round(books * loansPerBook);
+        long id = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into loan (id, customer, customer_email, id_book, loan_date, returned) values (?, ?, ?, ?, ?, ?)")) {
+            for (long i = 0; i < history; i++) {
+                int book = popular(powerLaw(random, books, POPULARITY_SKEW));
+                addLoan(insert, ++id, random, book, today.minusDays(1 + random.nextInt(HISTORY_DAYS)), true);
+                flushIfFull(connection, insert, id);
+            }
+            for (int book = 0; book < books; book++) {
+                if (hasOpenLoan(book)) {
+                    addLoan(insert, ++id, random, book, today.minusDays(random.nextInt(30)), false);
+                    flushIfFull(connection, insert, id);
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return id;
+    }
+
+    private void addLoan(PreparedStatement insert, long id, SplittableRandom random, int book,
+                         LocalDate loanDate, boolean returned) throws SQLException {
+        int customer = random.nextInt(customers);
+        insert.setLong(1, id);
+        insert.setString(2, "Cliente " + customer);
+        insert.setString(3, "cliente" + customer + "@example.com");
+        insert.setLong(4, bookId(book));
+        insert.setDate(5, Date.valueOf(loanDate));
+        insert.setBoolean(6, returned);
+        insert.addBatch();
+    }
+
+    private static void flushIfFull(Connection connection, PreparedStatement insert, long rows) throws SQLException {
+        if (rows % BATCH_SIZE == 0) {
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private SplittableRandom random(int index, int stream) {
+        return new SplittableRandom(mix(seed * 31 + stream) ^ mix(index));
+    }
+
+    /**
+     * Amostra em [0, n) com probabilidade aproximadamente proporcional a
+     * {@code 1 / (k + 1)^skew}, pela inversa da lei de potência contínua.
+     */
+    private static int powerLaw(SplittableRandom random, int n, double skew) {
+        double exponent = 1 - skew;
+        double u = random.nextDouble();
+        double x = Math.pow((Math.pow(n + 1, exponent) - 1) * u + 1, 1 / exponent);
+        return Math.min(n - 1, (int) x - 1);
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static char checkDigit(String twelveDigits) {
+        int sum = 0;
+        for (int i = 0; i < twelveDigits.length(); i++) {
+            int digit = twelveDigits.charAt(i) - '0';
+            sum += i % 2 == 0 ? digit : digit * 3;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
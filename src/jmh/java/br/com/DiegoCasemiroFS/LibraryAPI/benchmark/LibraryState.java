@@ -0,0 +1,82 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.LibraryApiApplication;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.ActiveLoanIndex;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnBloomFilter;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.OverdueLoanTracker;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.search.BookSearchIndex;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.LoanService;
+
+/**
+ * Aplicação inteira, sem a camada web, sobre um H2 em memória populado pelo
+ * {@link DatasetGenerator} com {@link #books} livros, dois empréstimos
+ * devolvidos por livro em média e um em cada dez livros emprestado.
+ * <p>
+ * Os caches e índices em memória são carregados depois da carga, como
+ * aconteceria num restart com o banco já populado.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    static final long SEED = 42L;
+
+    @Param({"10000", "100000"})
+    public int books;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    LoanService loanService;
+    BookRepository bookRepository;
+    DatasetGenerator dataset;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + books + ";DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "library.loans.overdue-check-cron=-")
+                .run();
+        bookService = context.getBean(BookService.class);
+        loanService = context.getBean(LoanService.class);
+        bookRepository = context.getBean(BookRepository.class);
+
+        dataset = new DatasetGenerator(SEED, books, 2.0, 0.1);
+        dataset.load(context.getBean(DataSource.class));
+
+        context.getBean(BookSearchIndex.class).rebuild();
+        context.getBean(IsbnBloomFilter.class).load();
+        context.getBean(ActiveLoanIndex.class).load();
+        context.getBean(OverdueLoanTracker.class).load();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Livros que não começam emprestados, usados pelos benchmarks de checkout.
+     */
+    boolean available(int index) {
+        return !dataset.hasOpenLoan(index);
+    }
+}
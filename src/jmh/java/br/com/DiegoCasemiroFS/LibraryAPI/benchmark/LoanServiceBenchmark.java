@@ -0,0 +1,48 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchItemDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+
+/**
+ * Empréstimo seguido da devolução do mesmo livro, o ciclo completo do
+ * {@code LoanServiceImpl}: o checkout do {@code POST /api/loans}, um único
+ * comando a partir do isbn, e a atualização em lote na devolução.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanServiceBenchmark {
+
+    private int next;
+
+    @Benchmark
+    public List<LoanBatchItemDto> checkoutAndReturn(LibraryState library) {
+        String isbn = library.dataset.isbn(nextAvailable(library));
+        library.loanService.checkout(LoanDto.builder().isbn(isbn).customer("Benchmark").build());
+        return library.loanService.returnAll(Collections.singletonList(isbn));
+    }
+
+    private int nextAvailable(LibraryState library) {
+        do {
+            next = (next + 1) % library.books;
+        } while (!library.available(next));
+        return next;
+    }
+}
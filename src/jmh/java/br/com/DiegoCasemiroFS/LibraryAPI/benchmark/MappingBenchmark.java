@@ -0,0 +1,126 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.PageDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.json.BookDtoSerializer;
+import br.com.DiegoCasemiroFS.LibraryAPI.json.PageDtoSerializer;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.BookMapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compara o mapeamento gerado pelo MapStruct com o caminho antigo via ModelMapper
+ * e mede a serialização de uma página de {@link BookDto}: o {@code PageImpl} pelo
+ * serializador de beans, como o controller devolvia, contra o {@link PageDto} com os
+ * serializadores escritos à mão. Com {@code -prof gc} sai também a alocação por
+ * operação; o tamanho de cada resposta vai para o log no fim do trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Slf4j
+public class MappingBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper compactMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new SimpleModule()
+                    .addSerializer(PageDto.class, new PageDtoSerializer())
+                    .addSerializer(BookDto.class, new BookDtoSerializer()))
+            .build();
+
+    private Book book;
+    private BookDto bookDto;
+    private List<Book> page;
+    private PageImpl<Book> bookPage;
+
+    @Setup
+    public void setup() {
+        book = Book.builder().id(1L).title("Dom Casmurro").author("Machado de Assis").isbn("9788572320144").build();
+        bookDto = BookDto.builder().title("Dom Casmurro").author("Machado de Assis").isbn("9788572320144").build();
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(Book.builder().id(id).title("Titulo " + id).author("Autor " + id).isbn("978" + id).build());
+        }
+        bookPage = new PageImpl<>(page, PageRequest.of(0, PAGE_SIZE), 10_000);
+    }
+
+    @TearDown
+    public void logSizes() throws JsonProcessingException {
+        log.info("bytes por página: pageJson={} compactPageJson={}",
+                pageJson().length, compactPageJson().length);
+    }
+
+    @Benchmark
+    public BookDto modelMapperToDto() {
+        return modelMapper.map(book, BookDto.class);
+    }
+
+    @Benchmark
+    public BookDto mapStructToDto() {
+        return bookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public Book modelMapperToEntity() {
+        return modelMapper.map(bookDto, Book.class);
+    }
+
+    @Benchmark
+    public Book mapStructToEntity() {
+        return bookMapper.toEntity(bookDto);
+    }
+
+    @Benchmark
+    public List<BookDto> modelMapperPage() {
+        return page.stream().map(entity -> modelMapper.map(entity, BookDto.class)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookDto> mapStructPage() {
+        return page.stream().map(bookMapper::toDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] pageJson() throws JsonProcessingException {
+        List<BookDto> content = page.stream().map(bookMapper::toDto).collect(Collectors.toList());
+        return objectMapper.writeValueAsBytes(new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 10_000));
+    }
+
+    @Benchmark
+    public byte[] compactPageJson() throws JsonProcessingException {
+        return compactMapper.writeValueAsBytes(PageDto.of(bookPage, bookMapper::toDto));
+    }
+}
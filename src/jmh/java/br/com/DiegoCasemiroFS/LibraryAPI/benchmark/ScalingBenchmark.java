@@ -0,0 +1,146 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.LibraryApiApplication;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Como as consultas quentes escalam com o tamanho do acervo: 1 e 10 milhões
+ * de livros, com o dobro de empréstimos, num H2 em arquivo em
+ * {@code target/jmh-data} recriado a cada trial.
+ * <p>
+ * O {@code find} usa página ordenada para ir ao banco: o índice de busca em
+ * memória não é carregado nesses volumes. Os livros populares concentram a
+ * maior parte do histórico, então {@code existsByBookAndNotReturned} é medido
+ * para livros quaisquer e para os cem mais emprestados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Slf4j
+public class ScalingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int POPULAR_BOOKS = 100;
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({"1000000", "10000000"})
+        public int books;
+
+        ConfigurableApplicationContext context;
+        DatasetGenerator generator;
+        BookService bookService;
+        BookRepository bookRepository;
+        LoanRepository loanRepository;
+
+        @Setup(Level.Trial)
+        public void load() throws IOException, SQLException {
+            Path directory = Paths.get("target", "jmh-data");
+            Files.createDirectories(directory);
+            Path database = directory.resolve("scaling-" + books);
+            Files.deleteIfExists(Paths.get(database + ".mv.db"));
+            Files.deleteIfExists(Paths.get(database + ".trace.db"));
+
+            context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:file:" + database.toAbsolutePath(),
+                            "spring.main.banner-mode=off",
+                            "logging.level.root=WARN",
+                            "logging.level.br.com.DiegoCasemiroFS.LibraryAPI.benchmark=INFO",
+                            "library.loans.overdue-check-cron=-")
+                    .run();
+            bookService = context.getBean(BookService.class);
+            bookRepository = context.getBean(BookRepository.class);
+            loanRepository = context.getBean(LoanRepository.class);
+
+            generator = new DatasetGenerator(LibraryState.SEED, books, 2.0, 0.05);
+            long start = System.nanoTime();
+            generator.load(context.getBean(DataSource.class));
+            log.info("{} livros gerados em {} s", books,
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+
+        private final SplittableRandom random = new SplittableRandom(LibraryState.SEED);
+
+        int any(Dataset dataset) {
+            return random.nextInt(dataset.books);
+        }
+
+        int popular(Dataset dataset) {
+            return dataset.generator.popular(random.nextInt(POPULAR_BOOKS));
+        }
+    }
+
+    @Benchmark
+    public Optional<Book> findByIsbn(Dataset dataset, Picker picker) {
+        return dataset.bookRepository.findByIsbn(dataset.generator.isbn(picker.any(dataset)));
+    }
+
+    @Benchmark
+    public boolean existsByBookAndNotReturned(Dataset dataset, Picker picker) {
+        return dataset.loanRepository.existsByBookAndNotReturned(book(dataset, picker.any(dataset)));
+    }
+
+    @Benchmark
+    public boolean existsByBookAndNotReturnedPopular(Dataset dataset, Picker picker) {
+        return dataset.loanRepository.existsByBookAndNotReturned(book(dataset, picker.popular(dataset)));
+    }
+
+    @Benchmark
+    public Page<Book> findByAuthor(Dataset dataset, Picker picker) {
+        Book filter = Book.builder().author(dataset.generator.author(picker.any(dataset))).build();
+        return dataset.bookService.find(filter, PageRequest.of(0, PAGE_SIZE, Sort.by("title")));
+    }
+
+    private static Book book(Dataset dataset, int index) {
+        return Book.builder().id(dataset.generator.bookId(index)).build();
+    }
+}
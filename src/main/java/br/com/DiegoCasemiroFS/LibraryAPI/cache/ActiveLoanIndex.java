@@ -0,0 +1,134 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ids dos livros que estão emprestados no momento, para que a checagem de
+ * "livro já emprestado" não precise ir ao banco. É carregado na subida e
+ * reconciliado periodicamente com a tabela de empréstimos.
+ */
+@Slf4j
+@Component
+public class ActiveLoanIndex {
+
+    private final LoanRepository loanRepository;
+    private final ConcurrentLongSet bookIds = new ConcurrentLongSet();
+    private final Set<Long> touchedWhileReconciling = ConcurrentHashMap.newKeySet();
+    private final Counter drift;
+    private volatile boolean ready;
+    private volatile boolean reconciling;
+
+    public ActiveLoanIndex(LoanRepository loanRepository, MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+
+        Gauge.builder("loans.active", bookIds, ConcurrentLongSet::size)
+                .register(meterRegistry);
+        this.drift = Counter.builder("loans.active.reconciliation.drift")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<Long> ids = loanRepository.streamOpenLoanBookIds()) {
+            ids.forEach(bookIds::add);
+        }
+        ready = true;
+        log.info("Índice de empréstimos ativos carregado com {} livros", bookIds.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isLoaned(Long bookId) {
+        return bookIds.contains(bookId);
+    }
+
+    public void loaned(Long bookId) {
+        touch(bookId);
+        bookIds.add(bookId);
+    }
+
+    public void returned(Long bookId) {
+        touch(bookId);
+        bookIds.remove(bookId);
+    }
+
+    /**
+     * Corrige divergências com o banco. Livros alterados durante a varredura
+     * são ignorados, pois o banco lido pode estar mais velho que a memória.
+     */
+    @Scheduled(initialDelayString = "${library.active-loans.reconcile-interval:PT5M}",
+            fixedDelayString = "${library.active-loans.reconcile-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+
+        touchedWhileReconciling.clear();
+        reconciling = true;
+        try {
+            ConcurrentLongSet fromDatabase = new ConcurrentLongSet();
+            try (Stream<Long> ids = loanRepository.streamOpenLoanBookIds()) {
+                ids.forEach(fromDatabase::add);
+            }
+
+            List<Long> missing = new ArrayList<>();
+            fromDatabase.forEach(id -> {
+                if (!bookIds.contains(id)) {
+                    missing.add(id);
+                }
+            });
+            List<Long> stale = new ArrayList<>();
+            bookIds.forEach(id -> {
+                if (!fromDatabase.contains(id)) {
+                    stale.add(id);
+                }
+            });
+
+            int fixed = 0;
+            for (Long id : missing) {
+                if (!touchedWhileReconciling.contains(id) && bookIds.add(id)) {
+                    fixed++;
+                }
+            }
+            for (Long id : stale) {
+                if (!touchedWhileReconciling.contains(id) && bookIds.remove(id)) {
+                    fixed++;
+                }
+            }
+
+            if (fixed > 0) {
+                drift.increment(fixed);
+                log.warn("Índice de empréstimos ativos divergia do banco em {} livros", fixed);
+            }
+        } finally {
+            reconciling = false;
+            touchedWhileReconciling.clear();
+        }
+    }
+
+    private void touch(Long bookId) {
+        if (reconciling) {
+            touchedWhileReconciling.add(bookId);
+        }
+    }
+}
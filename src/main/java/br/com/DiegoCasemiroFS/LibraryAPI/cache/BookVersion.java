@@ -0,0 +1,45 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.time.Instant;
+
+import org.springframework.http.MediaType;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Validadores HTTP de um livro: a versão, junto com o formato da resposta,
+ * vira a ETag forte e a data de alteração o Last-Modified.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BookVersion {
+
+    private final Long id;
+    private final Long version;
+    private final Instant updatedAt;
+
+    public static BookVersion of(Book book) {
+        return new BookVersion(book.getId(), book.getVersion(), book.getUpdatedAt());
+    }
+
+    public String getEtag() {
+        return id + "-" + (version == null ? 0 : version);
+    }
+
+    /**
+     * ETag forte de uma representação do livro, já que cada formato tem bytes
+     * próprios.
+     */
+    public String getEtag(MediaType representation) {
+        return getEtag() + "-" + representation.getSubtype();
+    }
+
+    /**
+     * Em milissegundos, ou -1 para livros gravados antes da coluna existir.
+     */
+    public long getLastModified() {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Versão atual de cada livro consultado, para responder 304 a GETs
+ * condicionais sem ir ao banco. Alterações e exclusões invalidam a entrada.
+ */
+@Component
+public class BookVersionCache {
+
+    public static final String NAME = "book-version";
+
+    private final Cache<Long, BookVersion> cache;
+
+    public BookVersionCache(@Value("${library.cache.book-version.maximum-size:100000}") long maximumSize,
+                            @Value("${library.cache.book-version.expire-after-write:10m}") Duration expireAfterWrite,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public BookVersion getIfPresent(Long id) {
+        return id == null ? null : cache.getIfPresent(id);
+    }
+
+    public void put(BookVersion version) {
+        if (version.getId() != null) {
+            cache.put(version.getId(), version);
+        }
+    }
+
+    public void invalidate(Long id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+}
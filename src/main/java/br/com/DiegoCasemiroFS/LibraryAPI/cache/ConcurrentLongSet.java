@@ -0,0 +1,173 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Conjunto concorrente de {@code long} sem boxing: tabelas de endereçamento
+ * aberto divididas em segmentos, cada um com o seu próprio monitor.
+ */
+class ConcurrentLongSet {
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    ConcurrentLongSet() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    boolean add(long value) {
+        long hash = hash(value);
+        return segmentFor(hash).add(value, hash);
+    }
+
+    boolean remove(long value) {
+        long hash = hash(value);
+        return segmentFor(hash).remove(value, hash);
+    }
+
+    boolean contains(long value) {
+        long hash = hash(value);
+        return segmentFor(hash).contains(value, hash);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Percorre os valores segmento a segmento. Não é um retrato atômico do
+     * conjunto e a ação não deve alterá-lo.
+     */
+    void forEach(LongConsumer action) {
+        for (Segment segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long hash(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Segment {
+
+        private long[] table = newTable(INITIAL_CAPACITY);
+        private int size;
+        private int used;
+
+        synchronized boolean add(long value, long hash) {
+            checkValue(value);
+            int mask = table.length - 1;
+            int index = (int) hash & mask;
+            int firstRemoved = -1;
+            while (table[index] != FREE) {
+                if (table[index] == value) {
+                    return false;
+                }
+                if (table[index] == REMOVED && firstRemoved < 0) {
+                    firstRemoved = index;
+                }
+                index = (index + 1) & mask;
+            }
+            if (firstRemoved >= 0) {
+                table[firstRemoved] = value;
+            } else {
+                table[index] = value;
+                used++;
+            }
+            size++;
+            if (used * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        synchronized boolean remove(long value, long hash) {
+            int index = indexOf(value, hash);
+            if (index < 0) {
+                return false;
+            }
+            table[index] = REMOVED;
+            size--;
+            return true;
+        }
+
+        synchronized boolean contains(long value, long hash) {
+            return indexOf(value, hash) >= 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void forEach(LongConsumer action) {
+            for (long value : table) {
+                if (value != FREE && value != REMOVED) {
+                    action.accept(value);
+                }
+            }
+        }
+
+        private int indexOf(long value, long hash) {
+            if (value == FREE || value == REMOVED) {
+                return -1;
+            }
+            int mask = table.length - 1;
+            int index = (int) hash & mask;
+            while (table[index] != FREE) {
+                if (table[index] == value) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void rehash() {
+            long[] old = table;
+            int capacity = size * 4 > old.length ? old.length * 2 : old.length;
+            table = newTable(capacity);
+            used = 0;
+            int mask = capacity - 1;
+            for (long value : old) {
+                if (value != FREE && value != REMOVED) {
+                    int index = (int) hash(value) & mask;
+                    while (table[index] != FREE) {
+                        index = (index + 1) & mask;
+                    }
+                    table[index] = value;
+                    used++;
+                }
+            }
+        }
+
+        private static long[] newTable(int capacity) {
+            long[] table = new long[capacity];
+            Arrays.fill(table, FREE);
+            return table;
+        }
+
+        private static void checkValue(long value) {
+            if (value == FREE || value == REMOVED) {
+                throw new IllegalArgumentException("Valor reservado: " + value);
+            }
+        }
+    }
+}
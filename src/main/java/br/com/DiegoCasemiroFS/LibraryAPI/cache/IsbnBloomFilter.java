@@ -0,0 +1,131 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pré-checagem de isbns já cadastrados. Quando o filtro diz que um isbn
+ * certamente não existe, a consulta {@code existsByIsbn} é dispensada; um
+ * "talvez" continua indo ao banco. Remoções não apagam bits, apenas são
+ * contadas, e no pior caso viram falsos positivos. As chaves são o isbn
+ * normalizado, então grafias diferentes do mesmo isbn caem nos mesmos bits.
+ */
+@Slf4j
+@Component
+public class IsbnBloomFilter {
+
+    private final BookRepository bookRepository;
+    private final ScalableBloomFilter filter;
+    private final Counter falsePositives;
+    private final AtomicLong deletions = new AtomicLong();
+    private volatile boolean ready;
+
+    public IsbnBloomFilter(@Value("${library.isbn-filter.expected-insertions:1000000}") long expectedInsertions,
+                           @Value("${library.isbn-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                           BookRepository bookRepository,
+                           MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.filter = new ScalableBloomFilter(expectedInsertions, falsePositiveRate);
+
+        Gauge.builder("isbn.filter.memory", this, IsbnBloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("isbn.filter.insertions", this, IsbnBloomFilter::insertions)
+                .register(meterRegistry);
+        Gauge.builder("isbn.filter.stages", this, IsbnBloomFilter::stages)
+                .register(meterRegistry);
+        Gauge.builder("isbn.filter.false.positive.rate.configured", () -> falsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("isbn.filter.false.positive.rate.expected", this, IsbnBloomFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+        Gauge.builder("isbn.filter.deletions", deletions, AtomicLong::get)
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("isbn.filter.false.positives")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<String> isbns = bookRepository.streamAllIsbns()) {
+            isbns.forEach(this::add);
+        }
+        ready = true;
+        log.info("Filtro de isbns carregado com {} isbns em {} bytes", insertions(), memoryBytes());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Devolve {@code false} apenas quando o isbn certamente não está cadastrado.
+     */
+    public boolean mightContain(String isbn) {
+        if (!ready || isbn == null) {
+            return true;
+        }
+        String key = IsbnCache.normalize(isbn);
+        synchronized (filter) {
+            return filter.mightContain(key);
+        }
+    }
+
+    public void add(String isbn) {
+        if (isbn == null) {
+            return;
+        }
+        String key = IsbnCache.normalize(isbn);
+        synchronized (filter) {
+            filter.add(key);
+        }
+    }
+
+    public void remove(String isbn) {
+        if (isbn != null) {
+            deletions.incrementAndGet();
+        }
+    }
+
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    private double memoryBytes() {
+        synchronized (filter) {
+            return filter.memoryBytes();
+        }
+    }
+
+    private double insertions() {
+        synchronized (filter) {
+            return filter.insertions();
+        }
+    }
+
+    private double stages() {
+        synchronized (filter) {
+            return filter.stages();
+        }
+    }
+
+    private double expectedFalsePositiveRate() {
+        synchronized (filter) {
+            return filter.expectedFalsePositiveRate();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Id do livro por isbn normalizado, incluindo entradas negativas para isbns
+ * inexistentes. Guarda só o id: o livro em si vem da região {@code book} do
+ * cache de segundo nível, que já é atualizada pelas alterações. Só a chave é
+ * normalizada: o banco é consultado com o isbn como foi informado.
+ */
+@Component
+public class IsbnCache {
+
+    public static final String NAME = "isbn";
+
+    private final Cache<String, Optional<Long>> cache;
+
+    public IsbnCache(@Value("${library.cache.isbn.maximum-size:100000}") long maximumSize,
+                     @Value("${library.cache.isbn.expire-after-write:10m}") Duration expireAfterWrite,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        return isbn.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+    }
+
+    public Optional<Long> get(String isbn, Function<String, Optional<Long>> loader) {
+        if (isbn == null) {
+            return loader.apply(null);
+        }
+        return cache.get(normalize(isbn), key -> loader.apply(isbn));
+    }
+
+    /**
+     * Id já em cache para o isbn, sem ir ao banco. Vazio tanto quando o isbn
+     * não está em cache quanto quando está marcado como inexistente.
+     */
+    public Optional<Long> getIfPresent(String isbn) {
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        Optional<Long> cached = cache.getIfPresent(normalize(isbn));
+        return cached == null ? Optional.empty() : cached;
+    }
+
+    /**
+     * Resolve vários isbns de uma vez. Só as entradas positivas são usadas: os
+     * isbns ausentes do cache ou marcados como inexistentes vão juntos ao
+     * loader, numa única consulta, e o resultado volta para o cache.
+     */
+    public Map<String, Long> getAll(Collection<String> isbns, Function<Set<String>, Map<String, Long>> loader) {
+        Map<String, Long> ids = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String isbn : isbns) {
+            Optional<Long> cached = cache.getIfPresent(normalize(isbn));
+            if (cached != null && cached.isPresent()) {
+                ids.put(isbn, cached.get());
+            } else {
+                missing.add(isbn);
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        Map<String, Long> loaded = loader.apply(missing);
+        for (String isbn : missing) {
+            Long id = loaded.get(isbn);
+            cache.put(normalize(isbn), Optional.ofNullable(id));
+            if (id != null) {
+                ids.put(isbn, id);
+            }
+        }
+        return ids;
+    }
+
+    public void put(String isbn, Long id) {
+        if (isbn != null && id != null) {
+            cache.put(normalize(isbn), Optional.of(id));
+        }
+    }
+
+    public void invalidate(String isbn) {
+        if (isbn != null) {
+            cache.invalidate(normalize(isbn));
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
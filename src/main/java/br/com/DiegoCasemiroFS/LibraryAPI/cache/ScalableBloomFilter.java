@@ -0,0 +1,140 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtro de Bloom escalável: quando um estágio atinge a capacidade, abre-se
+ * outro com o dobro da capacidade e metade da taxa de falso positivo, de
+ * forma que a taxa total fica limitada à configurada. Não é thread-safe.
+ */
+class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final double LN2 = Math.log(2);
+
+    private final List<Stage> stages = new ArrayList<>();
+    private long insertions;
+
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Capacidade inicial deve ser positiva.");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1.");
+        }
+        stages.add(new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        for (Stage stage : stages) {
+            if (stage.contains(hash)) {
+                return;
+            }
+        }
+        Stage current = stages.get(stages.size() - 1);
+        if (current.count >= current.capacity) {
+            current = new Stage(current.capacity * GROWTH_FACTOR, current.falsePositiveRate * TIGHTENING_RATIO);
+            stages.add(current);
+        }
+        current.add(hash);
+        insertions++;
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        for (Stage stage : stages) {
+            if (stage.contains(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long insertions() {
+        return insertions;
+    }
+
+    int stages() {
+        return stages.size();
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += (long) stage.bits.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Taxa de falso positivo estimada a partir da ocupação atual de cada estágio.
+     */
+    double expectedFalsePositiveRate() {
+        double allNegative = 1;
+        for (Stage stage : stages) {
+            double perHash = 1 - Math.exp(-(double) stage.hashes * stage.count / stage.size);
+            allNegative *= 1 - Math.pow(perHash, stage.hashes);
+        }
+        return 1 - allNegative;
+    }
+
+    static long hash(String value) {
+        // FNV-1a de 64 bits, finalizado com o mix do SplitMix64.
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long size;
+        private final int hashes;
+        private final long[] bits;
+        private long count;
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64)];
+            this.size = (long) bits.length * 64;
+            this.hashes = Math.max(1, (int) Math.round((double) size / capacity * LN2));
+        }
+
+        private void add(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        private boolean contains(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.config;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR ({@code application/cbor}) e Smile ({@code application/x-jackson-smile})
+ * para os clientes internos que pedem pelo {@code Accept} ou mandam no
+ * {@code Content-Type}, com os mesmos DTOs do JSON.
+ * <p>
+ * Os conversores saem do {@link Jackson2ObjectMapperBuilder} do Spring Boot, então
+ * levam os serializadores de {@code json} e as datas em ISO-8601; os que o Spring
+ * MVC registra sozinho usariam um mapper sem nada disso. Por terem a mesma classe,
+ * substituem os padrões na mesma posição, depois do JSON, que continua sendo a
+ * resposta de quem não pede formato.
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * A mesma URL responde em formatos diferentes: sem {@code Vary}, um cache no
+     * caminho poderia servir CBOR a quem pediu JSON.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/books/**", "/api/loans/**");
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.config;
+
+import org.mapstruct.factory.Mappers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.BookMapper;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.LoanMapper;
+
+@Configuration
+public class MapperConfig {
+
+    @Bean
+    public BookMapper bookMapper() {
+        return Mappers.getMapper(BookMapper.class);
+    }
+
+    @Bean
+    public LoanMapper loanMapper() {
+        return Mappers.getMapper(LoanMapper.class);
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.lock.BookLocks;
+import br.com.DiegoCasemiroFS.LibraryAPI.search.BookSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges das estruturas em memória que não registram as próprias métricas.
+ * Caches, fila de e-mails, índice de empréstimos e relógio de atrasos já se
+ * registram no construtor.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder bookSearchIndexMetrics(BookSearchIndex bookSearchIndex) {
+        return registry -> {
+            Gauge.builder("books.search.index.size", bookSearchIndex, BookSearchIndex::size)
+                    .description("Livros no índice de busca em memória")
+                    .register(registry);
+            Gauge.builder("books.search.index.ready", bookSearchIndex, index -> index.isReady() ? 1 : 0)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder bookLocksMetrics(BookLocks bookLocks) {
+        return registry -> Gauge.builder("loans.locks.waiting", bookLocks, BookLocks::waitingThreads)
+                .description("Threads na fila dos locks por livro")
+                .register(registry);
+    }
+}
@@ -1,29 +1,67 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.controller;
 
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersion;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersionCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookCursor;
 import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookImportResultDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookPatchDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CursorPageDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.PageDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.BookMapper;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookExportService;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookImportService;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
 import lombok.RequiredArgsConstructor;
 
@@ -32,38 +70,142 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class BookController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
     private final BookService bookService;
-    private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final BookVersionCache bookVersionCache;
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    @Value("${library.export.timeout:30m}")
+    private Duration exportTimeout;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public BookDto create(@RequestBody @Valid BookDto dto) {
-        Book book = modelMapper.map(dto, Book.class);
+        Book book = bookMapper.toEntity(dto);
         Book bookSaved = bookService.save(book);
-        BookDto bookDto = modelMapper.map(bookSaved, BookDto.class);
+        BookDto bookDto = bookMapper.toDto(bookSaved);
 
         return bookDto;
     }
 
-    @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public BookDto getById(@PathVariable Long id) {
-        return bookService.getById(id)
-                .map(book -> modelMapper.map(book, BookDto.class))
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BookImportResultDto importNdjson(InputStream body) {
+        return bookImportService.importBooks(body, CatalogFormat.NDJSON);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public BookImportResultDto importCsv(InputStream body) {
+        return bookImportService.importBooks(body, CatalogFormat.CSV);
+    }
+
+    /**
+     * A exportação completa pode levar bem mais que o timeout assíncrono
+     * padrão, então só ela recebe o timeout de {@code library.export.timeout}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip,
+                                                        HttpServletRequest request) {
+        CatalogFormat catalogFormat;
+        try {
+            catalogFormat = CatalogFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Formato não suportado: " + format);
+        }
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 64 * 1024);
+                bookExportService.exportBooks(compressed, catalogFormat);
+                compressed.finish();
+            } else {
+                bookExportService.exportBooks(output, catalogFormat);
+            }
+        };
+
+        WebAsyncUtils.getAsyncManager(request)
+                .registerCallableInterceptor(ExportTimeout.class.getName(), new ExportTimeout(exportTimeout));
+
+        String filename = "books." + catalogFormat.name().toLowerCase(Locale.ROOT);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(catalogFormat == CatalogFormat.CSV
+                        ? MediaType.parseMediaType(TEXT_CSV_VALUE)
+                        : MediaType.parseMediaType(MediaType.APPLICATION_NDJSON_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(body);
     }
 
+    /**
+     * Com a versão em cache, um GET condicional que bate com a ETag ou com o
+     * Last-Modified recebe 304 sem ir ao banco.
+     */
+    @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<BookDto> getById(@PathVariable Long id, NativeWebRequest request) {
+        Book book = null;
+        BookVersion version = bookVersionCache.getIfPresent(id);
+        if (version == null) {
+            book = bookService.getById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+            version = BookVersion.of(book);
+            bookVersionCache.put(version);
+        }
+
+        String etag = version.getEtag(representation(request));
+        if (request.checkNotModified(etag, version.getLastModified())) {
+            return null;
+        }
+
+        if (book == null) {
+            book = bookService.getById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+            version = BookVersion.of(book);
+            bookVersionCache.put(version);
+            etag = version.getEtag(representation(request));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (version.getLastModified() > 0) {
+            response.lastModified(version.getLastModified());
+        }
+        return response.body(bookMapper.toDto(book));
+    }
+
+    /**
+     * Como sempre, o PUT só altera título e autor; o isbn do corpo é validado
+     * mas não é gravado. A alteração vai direto ao banco, como no PATCH.
+     */
     @PutMapping("/{id}")
     public BookDto update(@PathVariable Long id, @RequestBody @Valid BookDto request) {
-        return bookService.getById(id)
-                .map(book -> {
-                    book.setAuthor(request.getAuthor());
-                    book.setTitle(request.getTitle());
-                    book = bookService.update(book);
-                    return modelMapper.map(book, BookDto.class);
-                })
+        Book changes = Book.builder()
+                .title(request.getTitle())
+                .author(request.getAuthor())
+                .build();
+
+        return bookService.patch(id, changes)
+                .map(bookMapper::toDto)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    @PatchMapping("/{id}")
+    public BookDto patch(@PathVariable Long id, @RequestBody @Valid BookPatchDto request) {
+        Book changes = Book.builder()
+                .title(request.getTitle())
+                .author(request.getAuthor())
+                .build();
 
+        return bookService.patch(id, changes)
+                .map(bookMapper::toDto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     @DeleteMapping("/{id}")
@@ -75,20 +217,112 @@ public class BookController {
         bookService.delete(book);
     }
 
-    @GetMapping
-    public Page<BookDto> find(BookDto bookDto, Pageable pageRequest) {
-        Book filter = modelMapper.map(bookDto, Book.class);
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public PageDto<BookDto> find(BookDto bookDto, Pageable pageRequest, NativeWebRequest request) {
+        Book filter = bookMapper.toEntity(bookDto);
         Page<Book> result = bookService.find(filter, pageRequest);
 
-        List<BookDto> list = bookService.find(filter, pageRequest)
-                .stream()
-                .map(entity -> modelMapper.map(entity, BookDto.class))
+        if (request.checkNotModified(listEtag(result, representation(request), pageRequest, result.getTotalElements()))) {
+            return null;
+        }
+
+        return PageDto.of(result, bookMapper::toDto);
+    }
+
+    /**
+     * As consultas por cursor percorrem o catálogo inteiro; filtros junto com
+     * {@code after} são recusados em vez de ignorados.
+     */
+    @GetMapping(params = "after", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public CursorPageDto<BookDto> findAfter(@RequestParam String after,
+                                            @RequestParam(defaultValue = BookCursor.SORT_BY_ID) String sort,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            BookDto filter,
+                                            NativeWebRequest request) {
+        if (StringUtils.hasText(filter.getTitle()) || StringUtils.hasText(filter.getAuthor())
+                || StringUtils.hasText(filter.getIsbn())) {
+            throw new BusinessException("Filtros por título, autor ou isbn não são aceitos com cursor.");
+        }
+
+        BookCursor cursor = after.isEmpty() ? BookCursor.first(sort) : BookCursor.decode(after);
+        Slice<Book> slice = bookService.findAfter(cursor, Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)));
+
+        if (request.checkNotModified(listEtag(slice, representation(request), cursor.encode(), slice.getSize(), slice.hasNext()))) {
+            return null;
+        }
+
+        List<BookDto> list = slice.stream()
+                .map(bookMapper::toDto)
                 .collect(Collectors.toList());
 
-        var pageBook = new PageImpl<BookDto>(list, pageRequest, result.getTotalElements());
+        String next = null;
+        if (slice.hasNext()) {
+            Book last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            next = BookCursor.after(cursor.getSort(), last).encode();
+        }
 
-        return pageBook;
+        return new CursorPageDto<>(list, list.size(), slice.hasNext(), next);
     }
 
-    // TODO Pesquisa de Empréstimos
+    /**
+     * Formato que a negociação de conteúdo vai escolher para a resposta: os
+     * tipos do {@code produces} do mapeamento que o Spring já casou com o
+     * Accept, na ordem de preferência do cliente. Entra nas ETags: JSON, CBOR
+     * e Smile do mesmo livro têm bytes diferentes e não podem validar um ao
+     * outro.
+     */
+    @SuppressWarnings("unchecked")
+    private MediaType representation(NativeWebRequest request) {
+        Set<MediaType> producible = (Set<MediaType>) request.getAttribute(
+                HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (producible == null || producible.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(contentNegotiationManager.resolveMediaTypes(request));
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType acceptable : accepted) {
+            for (MediaType produced : producible) {
+                if (acceptable.isCompatibleWith(produced)) {
+                    return produced;
+                }
+            }
+        }
+        return producible.iterator().next();
+    }
+
+    /**
+     * ETag de uma lista a partir das versões dos livros e dos parâmetros da
+     * página: muda sempre que algum livro da página ou a própria página muda.
+     */
+    private static String listEtag(Iterable<Book> books, Object... page) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : page) {
+            key.append(part).append(';');
+        }
+        for (Book book : books) {
+            key.append(BookVersion.of(book).getEtag()).append(';');
+        }
+        return DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class ExportTimeout implements CallableProcessingInterceptor {
+
+        private final Duration timeout;
+
+        private ExportTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            // Roda antes do startAsync, quando o timeout ainda pode ser trocado.
+            ((AsyncWebRequest) request).setTimeout(timeout.toMillis());
+        }
+    }
 }
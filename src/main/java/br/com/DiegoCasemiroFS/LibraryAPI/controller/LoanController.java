@@ -1,48 +1,95 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.controller;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CursorPageDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchItemDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.OverdueLoanDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.dto.ReturnedLoanDto;
-import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
-import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
-import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+import br.com.DiegoCasemiroFS.LibraryAPI.notification.LoanNotifier;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.OverdueLoanTracker;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.LoanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.validation.Valid;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/loans")
 public class LoanController {
 
-    private final BookService bookService;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final LoanService loanService;
+    private final OverdueLoanTracker overdueLoanTracker;
+    private final LoanNotifier loanNotifier;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Long create(@RequestBody LoanDto loanDTO) {
-        Book book = bookService.getBookByIsbn(loanDTO.getIsbn())
-                .orElseThrow(
-                        () -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn"));
-
-        Loan entity = Loan.builder()
-                .book(book)
-                .customer(loanDTO.getCustomer())
-                .loanDate(LocalDate.now())
-                .build();
-        entity = loanService.save(entity);
-
-        return entity.getId();
+        TrackedLoan loan = loanService.checkout(loanDTO);
+        loanNotifier.loanConfirmed(loan);
+
+        return loan.getLoanId();
+    }
+
+    @GetMapping
+    public CursorPageDto<LoanSummaryDto> find(LoanFilterDto filter,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestParam(defaultValue = "20") int size) {
+        Slice<LoanSummaryDto> slice = loanService.find(filter, after, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        String next = null;
+        if (slice.hasNext()) {
+            next = String.valueOf(slice.getContent().get(slice.getNumberOfElements() - 1).getId());
+        }
+
+        return new CursorPageDto<>(slice.getContent(), slice.getNumberOfElements(), slice.hasNext(), next);
     }
 
     @PatchMapping("/{id}")
-    public void returnBook(@PathVariable Long id, @RequestBody ReturnedLoanDto returnedLoanDto) {
-        Loan loan = loanService.getById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        loan.setReturned(returnedLoanDto.getReturned());
-        loanService.update(loan);
+    public void returnBook(@PathVariable Long id, @RequestBody @Valid ReturnedLoanDto returnedLoanDto) {
+        if (!loanService.updateReturned(id, returnedLoanDto.getReturned())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PostMapping("/batch")
+    public List<LoanBatchItemDto> createAll(@RequestBody List<LoanDto> loans) {
+        return loanService.saveAll(loans);
+    }
+
+    @PostMapping("/returns")
+    public List<LoanBatchItemDto> returnAll(@RequestBody List<String> isbns) {
+        return loanService.returnAll(isbns);
+    }
+
+    @GetMapping("/overdue")
+    public List<OverdueLoanDto> overdue() {
+        LocalDate today = LocalDate.now();
+        return overdueLoanTracker.overdue().stream()
+                .map(loan -> {
+                    LocalDate dueDate = overdueLoanTracker.dueDate(loan);
+                    return OverdueLoanDto.builder()
+                            .loanId(loan.getLoanId())
+                            .isbn(loan.getIsbn())
+                            .customer(loan.getCustomer())
+                            .loanDate(loan.getLoanDate())
+                            .dueDate(dueDate)
+                            .daysOverdue(Math.max(1, ChronoUnit.DAYS.between(dueDate, today)))
+                            .build();
+                })
+                .collect(Collectors.toList());
     }
 }
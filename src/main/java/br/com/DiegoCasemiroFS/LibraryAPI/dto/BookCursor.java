@@ -0,0 +1,61 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Posição de uma paginação por cursor no catálogo: a chave de ordenação do
+ * último livro entregue mais o seu id. Trafega como um token opaco em base64.
+ */
+@Data
+@AllArgsConstructor
+public class BookCursor {
+
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_TITLE = "title";
+
+    private String sort;
+    private Long id;
+    private String title;
+
+    public static BookCursor first(String sort) {
+        if (!SORT_BY_ID.equals(sort) && !SORT_BY_TITLE.equals(sort)) {
+            throw new BusinessException("Ordenação não suportada para paginação por cursor: " + sort);
+        }
+        return new BookCursor(sort, null, null);
+    }
+
+    public static BookCursor after(String sort, Book book) {
+        return new BookCursor(sort, book.getId(), SORT_BY_TITLE.equals(sort) ? book.getTitle() : null);
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 3);
+            if (SORT_BY_ID.equals(parts[0])) {
+                return new BookCursor(SORT_BY_ID, Long.valueOf(parts[1]), null);
+            }
+            if (SORT_BY_TITLE.equals(parts[0])) {
+                return new BookCursor(SORT_BY_TITLE, Long.valueOf(parts[1]), parts[2]);
+            }
+            throw new IllegalArgumentException(parts[0]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BusinessException("Cursor inválido.");
+        }
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public String encode() {
+        String raw = sort + ":" + id + ":" + (title == null ? "" : title);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BookImportResultDto {
+
+    private long received;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private List<ImportRowErrorDto> errors = new ArrayList<>();
+
+}
@@ -0,0 +1,26 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Corpo do PATCH de livro: só os campos informados são alterados. O isbn é o
+ * identificador natural do livro e não muda.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPatchDto {
+
+    @Size(min = 1)
+    private String title;
+
+    @Size(min = 1)
+    private String author;
+
+}
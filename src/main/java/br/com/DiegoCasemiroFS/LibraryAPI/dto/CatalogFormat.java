@@ -0,0 +1,8 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+public enum CatalogFormat {
+
+    NDJSON,
+    CSV
+
+}
@@ -0,0 +1,18 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDto {
+
+    private long line;
+    private String isbn;
+    private String message;
+
+}
@@ -0,0 +1,18 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanBatchItemDto {
+
+    private String isbn;
+    private LoanBatchStatus status;
+    private Long loanId;
+
+}
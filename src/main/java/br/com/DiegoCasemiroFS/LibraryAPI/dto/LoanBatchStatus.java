@@ -0,0 +1,11 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+public enum LoanBatchStatus {
+
+    LOANED,
+    RETURNED,
+    BOOK_NOT_FOUND,
+    ALREADY_LOANED,
+    NOT_LOANED
+
+}
@@ -13,5 +13,6 @@ public class LoanDto {
 
     private String isbn;
     private String customer;
+    private String customerEmail;
 
 }
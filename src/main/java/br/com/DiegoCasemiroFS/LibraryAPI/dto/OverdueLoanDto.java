@@ -0,0 +1,23 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueLoanDto {
+
+    private Long loanId;
+    private String isbn;
+    private String customer;
+    private LocalDate loanDate;
+    private LocalDate dueDate;
+    private long daysOverdue;
+
+}
@@ -0,0 +1,46 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.dto;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Página numerada só com o que o cliente usa: o conteúdo, a posição e os
+ * totais. Substitui o {@code PageImpl}, que leva junto todo o
+ * {@code Pageable} e o {@code Sort}.
+ */
+@Getter
+@AllArgsConstructor
+public class PageDto<T> {
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+    private final int totalPages;
+
+    /**
+     * O conteúdo é uma visão sobre a página: cada item é convertido na hora
+     * em que é escrito, sem montar uma segunda lista.
+     */
+    public static <S, T> PageDto<T> of(Page<S> page, Function<? super S, ? extends T> mapper) {
+        List<S> source = page.getContent();
+        List<T> content = new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return mapper.apply(source.get(index));
+            }
+
+            @Override
+            public int size() {
+                return source.size();
+            }
+        };
+        return new PageDto<>(content, page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
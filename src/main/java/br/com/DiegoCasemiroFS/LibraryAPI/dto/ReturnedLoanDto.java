@@ -1,5 +1,7 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.dto;
 
+import javax.validation.constraints.NotNull;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +13,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ReturnedLoanDto {
     
+    @NotNull
     private Boolean returned;
     
 }
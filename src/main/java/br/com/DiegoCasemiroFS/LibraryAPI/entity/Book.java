@@ -1,12 +1,22 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.entity;
 
+import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,14 +26,17 @@ import lombok.NoArgsConstructor;
 @Data
 @Table
 @Entity
-@Builder
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@NaturalIdCache(region = "book-isbn")
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book {
 
     @Id
     @Column
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     
     @Column
@@ -32,7 +45,21 @@ public class Book {
     @Column
     private String author;
     
+    @NaturalId
     @Column
     private String isbn;
 
+    @Version
+    @Column
+    private Long version;
+
+    @Column
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
 }
\ No newline at end of file
@@ -4,11 +4,15 @@ import java.time.LocalDate;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.SequenceGenerator;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,27 +21,36 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Entity
+@NamedEntityGraph(name = Loan.WITH_BOOK, attributeNodes = @NamedAttributeNode("book"))
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Loan {
 
+    /** Grafo para as telas que mostram dados do livro junto com o empréstimo. */
+    public static final String WITH_BOOK = "Loan.book";
+
     @Id
     @Column
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_seq")
+    @SequenceGenerator(name = "loan_seq", sequenceName = "loan_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 100)
     private String customer;
 
-    @ManyToOne
+    @Column(length = 100)
+    private String customerEmail;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_book")
     private Book book;
 
     @Column
     private LocalDate loanDate;
 
-    @Column
-    private Boolean returned;
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean returned = false;
 
 }
@@ -0,0 +1,33 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.json;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+
+/**
+ * Escreve o livro campo a campo, sem a introspecção do serializador de beans.
+ * Mesma saída de antes, nulos incluídos.
+ */
+@JsonComponent
+public class BookDtoSerializer extends JsonSerializer<BookDto> {
+
+    @Override
+    public void serialize(BookDto book, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        if (book.getId() == null) {
+            generator.writeNullField("id");
+        } else {
+            generator.writeNumberField("id", book.getId());
+        }
+        generator.writeStringField("title", book.getTitle());
+        generator.writeStringField("author", book.getAuthor());
+        generator.writeStringField("isbn", book.getIsbn());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,38 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.json;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+
+/**
+ * Linha da pesquisa de empréstimos; a data sai em ISO-8601, como no
+ * {@code JavaTimeModule} configurado pelo Spring Boot.
+ */
+@JsonComponent
+public class LoanSummaryDtoSerializer extends JsonSerializer<LoanSummaryDto> {
+
+    @Override
+    public void serialize(LoanSummaryDto loan, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        if (loan.getId() == null) {
+            generator.writeNullField("id");
+        } else {
+            generator.writeNumberField("id", loan.getId());
+        }
+        generator.writeStringField("isbn", loan.getIsbn());
+        generator.writeStringField("customer", loan.getCustomer());
+        generator.writeStringField("loanDate", loan.getLoanDate() == null ? null : loan.getLoanDate().toString());
+        if (loan.getReturned() == null) {
+            generator.writeNullField("returned");
+        } else {
+            generator.writeBooleanField("returned", loan.getReturned());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.json;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.PageDto;
+
+/**
+ * Escreve o envelope direto no gerador: o conteúdo é convertido item a item
+ * enquanto sai, e os totais vêm depois, sem {@code pageable} nem {@code sort}.
+ */
+@JsonComponent
+@SuppressWarnings("rawtypes")
+public class PageDtoSerializer extends JsonSerializer<PageDto> {
+
+    @Override
+    public void serialize(PageDto page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("content");
+        for (Object item : page.getContent()) {
+            provider.defaultSerializeValue(item, generator);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("page", page.getPage());
+        generator.writeNumberField("size", page.getSize());
+        generator.writeNumberField("totalElements", page.getTotalElements());
+        generator.writeNumberField("totalPages", page.getTotalPages());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.lock;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Locks por livro distribuídos em faixas: operações sobre o mesmo livro são
+ * serializadas, operações sobre livros de faixas diferentes correm em paralelo.
+ */
+@Component
+public class BookLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public BookLocks(@Value("${library.loans.lock-stripes:256}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Threads esperando por alguma faixa; estimativa, como em
+     * {@link ReentrantLock#getQueueLength()}.
+     */
+    public int waitingThreads() {
+        int waiting = 0;
+        for (ReentrantLock stripe : stripes) {
+            waiting += stripe.getQueueLength();
+        }
+        return waiting;
+    }
+
+    public <T> T withLock(Long bookId, Supplier<T> action) {
+        ReentrantLock lock = stripes[indexOf(bookId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Trava as faixas de vários livros sempre na mesma ordem, para que dois
+     * lotes concorrentes não entrem em deadlock.
+     */
+    public <T> T withLocks(Collection<Long> bookIds, Supplier<T> action) {
+        int[] indexes = bookIds.stream()
+                .mapToInt(this::indexOf)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private int indexOf(Long bookId) {
+        long z = bookId * 0x9E3779B97F4A7C15L;
+        return (int) (z >>> 32 ^ z) & (stripes.length - 1);
+    }
+}
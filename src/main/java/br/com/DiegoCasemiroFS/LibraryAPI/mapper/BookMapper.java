@@ -0,0 +1,17 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+
+@Mapper
+public interface BookMapper {
+
+    BookDto toDto(Book book);
+
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Book toEntity(BookDto dto);
+}
@@ -0,0 +1,20 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+
+@Mapper
+public interface LoanMapper {
+
+    @Mapping(target = "isbn", source = "book.isbn")
+    LoanDto toDto(Loan loan);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "book", ignore = true)
+    @Mapping(target = "loanDate", ignore = true)
+    @Mapping(target = "returned", ignore = true)
+    Loan toEntity(LoanDto dto);
+}
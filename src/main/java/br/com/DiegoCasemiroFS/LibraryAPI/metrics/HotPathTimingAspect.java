@@ -0,0 +1,94 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mede cada chamada aos serviços de livros e empréstimos e aos repositórios.
+ * <p>
+ * Os timers saem como {@code library.service} e {@code library.repository},
+ * com as tags {@code class}, {@code method} e {@code exception}; o histograma
+ * de percentis é ligado em {@code application.properties}. Com os dois níveis
+ * dá para separar, numa página do {@code BookController.find}, o tempo da
+ * consulta, o do count e o que sobra para o mapeamento.
+ */
+@Aspect
+@Component
+public class HotPathTimingAspect {
+
+    public static final String SERVICE_TIMER = "library.service";
+    public static final String REPOSITORY_TIMER = "library.repository";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public HotPathTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * br.com.DiegoCasemiroFS.LibraryAPI.service.BookService+.*(..))"
+            + " || execution(public * br.com.DiegoCasemiroFS.LibraryAPI.service.LoanService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return time(joinPoint, SERVICE_TIMER, method.getDeclaringClass().getSimpleName(), method.getName());
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getTarget().getClass(),
+                HotPathTimingAspect::repositoryName);
+        return time(joinPoint, REPOSITORY_TIMER, repository, joinPoint.getSignature().getName());
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, String type, String method) throws Throwable {
+        long start = System.nanoTime();
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(name, type, method, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String type, String method, String exception) {
+        return timers.computeIfAbsent(name + ':' + type + '.' + method + ':' + exception,
+                key -> Timer.builder(name)
+                        .tag("class", type)
+                        .tag("method", method)
+                        .tag("exception", exception)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Os repositórios do Spring Data são proxies: o nome útil é o da interface
+     * da aplicação, não o da classe gerada nem o do {@code CrudRepository}.
+     */
+    private static String repositoryName(Class<?> proxyClass) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(proxyClass)) {
+            if (Repository.class.isAssignableFrom(type)
+                    && type.getName().startsWith("br.com.DiegoCasemiroFS.LibraryAPI.")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxyClass.getSimpleName();
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.notification;
+
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.LoanOverdueEvent;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.OverdueLoanTracker;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
+
+/**
+ * Monta as mensagens de confirmação de empréstimo e de aviso de atraso e as
+ * entrega ao {@link MailDispatcher}. Nada aqui espera pelo SMTP.
+ */
+@Component
+public class LoanNotifier {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final MailDispatcher mailDispatcher;
+    private final OverdueLoanTracker overdueLoanTracker;
+    private final String from;
+
+    public LoanNotifier(MailDispatcher mailDispatcher,
+                        OverdueLoanTracker overdueLoanTracker,
+                        @Value("${library.mail.from:biblioteca@localhost}") String from) {
+        this.mailDispatcher = mailDispatcher;
+        this.overdueLoanTracker = overdueLoanTracker;
+        this.from = from;
+    }
+
+    public void loanConfirmed(TrackedLoan loan) {
+        if (loan.getCustomerEmail() == null || loan.getCustomerEmail().isBlank()) {
+            return;
+        }
+
+        mailDispatcher.enqueue(message(loan.getCustomerEmail(),
+                "Empréstimo confirmado: isbn " + loan.getIsbn(),
+                "Olá, " + loan.getCustomer() + ".\n\n"
+                        + "Seu empréstimo do livro de isbn " + loan.getIsbn() + " "
+                        + "foi registrado em " + loan.getLoanDate().format(DATE_FORMAT) + ".\n"
+                        + "A devolução deve ser feita até " + overdueLoanTracker.dueDate(loan).format(DATE_FORMAT) + ".\n"));
+    }
+
+    @EventListener
+    public void loanOverdue(LoanOverdueEvent event) {
+        TrackedLoan loan = event.getLoan();
+        if (loan.getCustomerEmail() == null || loan.getCustomerEmail().isBlank()) {
+            return;
+        }
+
+        mailDispatcher.enqueue(message(loan.getCustomerEmail(),
+                "Empréstimo em atraso: isbn " + loan.getIsbn(),
+                "Olá, " + loan.getCustomer() + ".\n\n"
+                        + "O livro de isbn " + loan.getIsbn() + ", emprestado em "
+                        + loan.getLoanDate().format(DATE_FORMAT) + ", deveria ter sido devolvido até "
+                        + event.getDueDate().format(DATE_FORMAT) + ".\n"
+                        + "Por favor, faça a devolução assim que possível.\n"));
+    }
+
+    private SimpleMailMessage message(String to, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        return message;
+    }
+}
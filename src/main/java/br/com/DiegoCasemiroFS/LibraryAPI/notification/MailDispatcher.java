@@ -0,0 +1,266 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.notification;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fila limitada de e-mails atendida por poucos workers. Cada worker junta até
+ * {@code batch-size} mensagens e as envia numa única conexão SMTP. Falhas
+ * voltam para a fila com backoff exponencial e jitter; depois da última
+ * tentativa a mensagem vai para a lista de cartas mortas.
+ * <p>
+ * {@link #enqueue} nunca bloqueia: com a fila cheia a mensagem é recusada.
+ * Sem {@code spring.mail.host} configurado não há {@link JavaMailSender} e o
+ * despachante fica desligado.
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    private static final int MAX_DEAD_LETTERS = 1000;
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<Envelope> queue;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter rejected;
+    private final Counter deadLettered;
+    private final Timer latency;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    public MailDispatcher(ObjectProvider<JavaMailSender> mailSender,
+                          MeterRegistry meterRegistry,
+                          @Value("${library.mail.queue-capacity:10000}") int queueCapacity,
+                          @Value("${library.mail.workers:2}") int workers,
+                          @Value("${library.mail.batch-size:50}") int batchSize,
+                          @Value("${library.mail.max-attempts:5}") int maxAttempts,
+                          @Value("${library.mail.initial-backoff:1s}") Duration initialBackoff) {
+        this.mailSender = mailSender.getIfAvailable();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+
+        Gauge.builder("mail.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        Gauge.builder("mail.dead.letters", this, MailDispatcher::deadLetterCount)
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.failed").register(meterRegistry);
+        this.retried = Counter.builder("mail.retried").register(meterRegistry);
+        this.rejected = Counter.builder("mail.rejected").register(meterRegistry);
+        this.deadLettered = Counter.builder("mail.dead.lettered").register(meterRegistry);
+        this.latency = Timer.builder("mail.send.latency")
+                .description("Tempo de envio de um lote de e-mails")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mailSender == null) {
+            log.info("Envio de e-mails desligado: nenhum servidor SMTP configurado");
+            return;
+        }
+        running = true;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "mail-retry"));
+        for (int i = 0; i < workers; i++) {
+            Thread worker = daemon(this::work, "mail-sender-" + i);
+            workerThreads.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+        for (Thread worker : workerThreads) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} e-mails ficaram na fila no desligamento", queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return mailSender != null;
+    }
+
+    /**
+     * Enfileira a mensagem sem bloquear. Devolve {@code false} quando o envio
+     * está desligado ou a fila está cheia.
+     */
+    public boolean enqueue(SimpleMailMessage message) {
+        if (mailSender == null) {
+            return false;
+        }
+        if (!queue.offer(new Envelope(message, 1))) {
+            rejected.increment();
+            log.warn("Fila de e-mails cheia, mensagem para {} recusada", (Object) message.getTo());
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized List<DeadLetter> deadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    synchronized int deadLetterCount() {
+        return deadLetters.size();
+    }
+
+    private void work() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Envelope first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Erro inesperado no envio de e-mails", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void send(List<Envelope> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                .map(Envelope::getMessage)
+                .toArray(SimpleMailMessage[]::new);
+
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+            sent.increment(batch.size());
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (Envelope envelope : batch) {
+                Exception cause = failedMessages.isEmpty() ? e : failedMessages.get(envelope.getMessage());
+                if (cause == null) {
+                    sent.increment();
+                } else {
+                    retry(envelope, cause);
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(envelope -> retry(envelope, e));
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void retry(Envelope envelope, Exception cause) {
+        failed.increment();
+        if (envelope.getAttempts() >= maxAttempts || !running) {
+            deadLetter(envelope, cause);
+            return;
+        }
+
+        Envelope next = new Envelope(envelope.getMessage(), envelope.getAttempts() + 1);
+        long delay = backoffMillis(envelope.getAttempts());
+        retried.increment();
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(next)) {
+                deadLetter(next, new IllegalStateException("Fila de e-mails cheia"));
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dobra a espera a cada tentativa e sorteia entre metade e o total, para
+     * que mensagens que falharam juntas não voltem todas ao mesmo tempo.
+     */
+    private long backoffMillis(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private void deadLetter(Envelope envelope, Exception cause) {
+        deadLettered.increment();
+        log.error("E-mail para {} descartado após {} tentativas: {}",
+                (Object) envelope.getMessage().getTo(), envelope.getAttempts(), cause.getMessage());
+        synchronized (this) {
+            if (deadLetters.size() >= MAX_DEAD_LETTERS) {
+                deadLetters.removeFirst();
+            }
+            deadLetters.addLast(new DeadLetter(envelope.getMessage(), envelope.getAttempts(),
+                    cause.getMessage(), Instant.now()));
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Envelope {
+
+        private final SimpleMailMessage message;
+        private final int attempts;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class DeadLetter {
+
+        private final SimpleMailMessage message;
+        private final int attempts;
+        private final String error;
+        private final Instant failedAt;
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.overdue;
+
+import java.time.LocalDate;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publicado uma vez, no dia em que um empréstimo aberto passa do prazo.
+ */
+@Getter
+@RequiredArgsConstructor
+public class LoanOverdueEvent {
+
+    private final TrackedLoan loan;
+    private final LocalDate dueDate;
+}
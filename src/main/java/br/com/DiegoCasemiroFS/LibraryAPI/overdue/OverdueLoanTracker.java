@@ -0,0 +1,166 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.overdue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acompanha os prazos dos empréstimos abertos numa roda de tempo com tick de
+ * um dia. Empréstimos e devoluções atualizam a roda em O(1), e o avanço
+ * diário só visita os empréstimos que vencem naquele dia: a tabela de
+ * empréstimos é lida uma única vez, na subida.
+ * <p>
+ * Empréstimos que já estavam atrasados na subida entram na lista de
+ * atrasados sem gerar {@link LoanOverdueEvent}.
+ */
+@Slf4j
+@Component
+public class OverdueLoanTracker {
+
+    private final LoanRepository loanRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int periodDays;
+    private final TimingWheel<TrackedLoan> wheel = new TimingWheel<>(LocalDate.now().toEpochDay());
+    private final Map<Long, TrackedLoan> overdue = new HashMap<>();
+    private final Set<Long> returnedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+
+    public OverdueLoanTracker(LoanRepository loanRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${library.loans.period-days:14}") int periodDays) {
+        this.loanRepository = loanRepository;
+        this.eventPublisher = eventPublisher;
+        this.periodDays = periodDays;
+
+        Gauge.builder("loans.tracked", this, OverdueLoanTracker::trackedCount)
+                .register(meterRegistry);
+        Gauge.builder("loans.overdue", this, OverdueLoanTracker::overdueCount)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<TrackedLoan> loans = loanRepository.streamOpenTrackedLoans()) {
+            loans.forEach(loan -> {
+                synchronized (this) {
+                    if (!returnedWhileLoading.contains(loan.getLoanId())) {
+                        track(loan);
+                    }
+                }
+            });
+        }
+
+        synchronized (this) {
+            returnedWhileLoading.clear();
+            ready = true;
+            log.info("Rastreador de atrasos carregado com {} empréstimos no prazo e {} atrasados",
+                    wheel.size(), overdue.size());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void loaned(TrackedLoan loan) {
+        if (loan.getLoanId() == null || loan.getLoanDate() == null) {
+            return;
+        }
+        boolean alreadyOverdue;
+        synchronized (this) {
+            alreadyOverdue = !track(loan);
+        }
+        if (alreadyOverdue) {
+            eventPublisher.publishEvent(new LoanOverdueEvent(loan, dueDate(loan)));
+        }
+    }
+
+    public synchronized void returned(Long loanId) {
+        if (loanId == null) {
+            return;
+        }
+        if (!ready) {
+            returnedWhileLoading.add(loanId);
+        }
+        wheel.cancel(loanId);
+        overdue.remove(loanId);
+    }
+
+    @Scheduled(cron = "${library.loans.overdue-check-cron:0 0 * * * *}")
+    public void tick() {
+        advanceTo(LocalDate.now());
+    }
+
+    /**
+     * Avança a roda até {@code today}, movendo para a lista de atrasados e
+     * notificando os empréstimos que venceram no caminho.
+     */
+    public void advanceTo(LocalDate today) {
+        List<LoanOverdueEvent> events = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(today.toEpochDay(), timer -> {
+                overdue.put(timer.key(), timer.value());
+                events.add(new LoanOverdueEvent(timer.value(), dueDate(timer.value())));
+            });
+        }
+
+        if (!events.isEmpty()) {
+            log.info("{} empréstimos passaram do prazo em {}", events.size(), today);
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    public synchronized List<TrackedLoan> overdue() {
+        List<TrackedLoan> loans = new ArrayList<>(overdue.values());
+        loans.sort(Comparator.comparing(TrackedLoan::getLoanDate).thenComparing(TrackedLoan::getLoanId));
+        return loans;
+    }
+
+    public LocalDate dueDate(TrackedLoan loan) {
+        return loan.getLoanDate().plusDays(periodDays);
+    }
+
+    synchronized int trackedCount() {
+        return wheel.size();
+    }
+
+    synchronized int overdueCount() {
+        return overdue.size();
+    }
+
+    /**
+     * Agenda o empréstimo para o dia seguinte ao vencimento; devolve
+     * {@code false} se esse dia já chegou e o empréstimo foi direto para a
+     * lista de atrasados.
+     */
+    private boolean track(TrackedLoan loan) {
+        overdue.remove(loan.getLoanId());
+        long firstLateDay = dueDate(loan).toEpochDay() + 1;
+        if (wheel.schedule(loan.getLoanId(), loan, firstLateDay)) {
+            return true;
+        }
+        overdue.put(loan.getLoanId(), loan);
+        return false;
+    }
+}
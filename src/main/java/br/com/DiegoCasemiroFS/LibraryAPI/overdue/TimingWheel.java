@@ -0,0 +1,163 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.overdue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Roda de tempo hierárquica com quatro níveis de 64 posições. Agendar e
+ * cancelar custam O(1); cada timer é redistribuído no máximo uma vez por
+ * nível até vencer. Prazos e instante atual são contados em ticks inteiros.
+ * <p>
+ * Não é thread-safe: quem usa sincroniza o acesso.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = 1L << (SLOT_BITS * LEVELS);
+
+    private final List<List<Map<Long, Timer<T>>>> wheels = new ArrayList<>(LEVELS);
+    private final Map<Long, Timer<T>> timers = new HashMap<>();
+    private long now;
+
+    TimingWheel(long now) {
+        this.now = now;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Map<Long, Timer<T>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashMap<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    long now() {
+        return now;
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    /**
+     * Agenda {@code value} para vencer em {@code deadline}, substituindo um
+     * timer anterior com a mesma chave. Devolve {@code false}, sem agendar,
+     * quando o prazo já venceu.
+     */
+    boolean schedule(long key, T value, long deadline) {
+        cancel(key);
+        if (deadline <= now) {
+            return false;
+        }
+        if (deadline - now >= MAX_DELAY) {
+            throw new IllegalArgumentException("Prazo além do alcance da roda: " + deadline);
+        }
+        Timer<T> timer = new Timer<>(key, value, deadline);
+        timers.put(key, timer);
+        place(timer);
+        return true;
+    }
+
+    boolean cancel(long key) {
+        Timer<T> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.bucket.remove(key);
+        return true;
+    }
+
+    /**
+     * Avança até {@code tick}, entregando a {@code expired} cada timer vencido
+     * no caminho, em ordem de prazo.
+     */
+    void advanceTo(long tick, Consumer<Timer<T>> expired) {
+        while (now < tick) {
+            now++;
+            // Do nível mais alto para o mais baixo: um timer que desce dois
+            // níveis precisa cair numa posição que ainda vai ser visitada.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, expired);
+                }
+            }
+
+            Map<Long, Timer<T>> bucket = slots(0).get((int) (now & SLOT_MASK));
+            if (!bucket.isEmpty()) {
+                List<Timer<T>> due = new ArrayList<>(bucket.values());
+                bucket.clear();
+                for (Timer<T> timer : due) {
+                    timers.remove(timer.key);
+                    expired.accept(timer);
+                }
+            }
+        }
+    }
+
+    private void cascade(int level, Consumer<Timer<T>> expired) {
+        Map<Long, Timer<T>> bucket = slots(level).get(slotOf(now, level));
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Timer<T>> moving = new ArrayList<>(bucket.values());
+        bucket.clear();
+        for (Timer<T> timer : moving) {
+            if (timer.deadline <= now) {
+                timers.remove(timer.key);
+                expired.accept(timer);
+            } else {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.deadline - now;
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Map<Long, Timer<T>> bucket = slots(level).get(slotOf(timer.deadline, level));
+        bucket.put(timer.key, timer);
+        timer.bucket = bucket;
+    }
+
+    private List<Map<Long, Timer<T>>> slots(int level) {
+        return wheels.get(level);
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    static final class Timer<T> {
+
+        private final long key;
+        private final T value;
+        private final long deadline;
+        private Map<Long, Timer<T>> bucket;
+
+        private Timer(long key, T value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        long key() {
+            return key;
+        }
+
+        T value() {
+            return value;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+    }
+}
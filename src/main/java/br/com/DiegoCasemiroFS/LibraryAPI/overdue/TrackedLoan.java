@@ -0,0 +1,28 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.overdue;
+
+import java.time.LocalDate;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * O que o rastreador de atrasos guarda de cada empréstimo aberto: só o
+ * necessário para listar e notificar, sem manter entidades em memória.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TrackedLoan {
+
+    private final Long loanId;
+    private final Long bookId;
+    private final String isbn;
+    private final String customer;
+    private final String customerEmail;
+    private final LocalDate loanDate;
+
+    public static TrackedLoan of(Loan loan) {
+        return new TrackedLoan(loan.getId(), loan.getBook().getId(), loan.getBook().getIsbn(),
+                loan.getCustomer(), loan.getCustomerEmail(), loan.getLoanDate());
+    }
+}
@@ -1,14 +1,78 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+
+    /**
+     * Busca por exemplo com o resultado (e o count da página) no cache de
+     * consultas; qualquer escrita na tabela book invalida a região.
+     */
+    @Override
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "book-queries")
+    })
+    <S extends Book> Page<S> findAll(Example<S> example, Pageable pageable);
 
     boolean existsByIsbn(String isbn);
 
+    /**
+     * Consulta direta pelo isbn, sem passar por nenhum cache. A aplicação usa
+     * {@link BookRepositoryCustom#findByNaturalIsbn}; esta fica como referência
+     * do custo no banco para o ScalingBenchmark e para conferências nos testes.
+     */
     Optional<Book> findByIsbn(String isbn);
-}
\ No newline at end of file
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    @Query("select b.id from Book b where b.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select b from Book b where b.id = :id")
+    Optional<Book> findForCheckout(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select b.isbn from Book b")
+    Stream<String> streamAllIsbns();
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
+
+    @Query("select b from Book b where b.id > :id order by b.id")
+    Slice<Book> findNextById(@Param("id") Long id, Pageable pageable);
+
+    @Query("select b from Book b where b.title is not null order by b.title, b.id")
+    Slice<Book> findFirstByTitle(Pageable pageable);
+
+    @Query("select b from Book b "
+            + "where b.title > :title or (b.title = :title and b.id > :id) "
+            + "order by b.title, b.id")
+    Slice<Book> findNextByTitle(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+}
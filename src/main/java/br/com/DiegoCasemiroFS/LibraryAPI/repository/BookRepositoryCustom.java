@@ -0,0 +1,22 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.repository;
+
+import java.util.Optional;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Busca pelo isbn como natural id: com o cache de segundo nível, a
+     * resolução isbn -> id e o livro saem do cache sem ir ao banco.
+     */
+    Optional<Book> findByNaturalIsbn(String isbn);
+
+    /**
+     * Atualiza título e autor num único comando, sem carregar o livro; campo
+     * nulo não é alterado. Devolve o livro como ficou, ou vazio quando o id
+     * não existe ou os valores já eram esses.
+     */
+    Optional<Book> patch(Long id, String title, String author);
+
+}
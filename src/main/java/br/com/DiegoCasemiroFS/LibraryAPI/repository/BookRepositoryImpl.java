@@ -0,0 +1,91 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    /*
+     * Campo nulo fica como está. O "is distinct from" deixa de fora o pedido
+     * que não muda nada, então repetir o mesmo PATCH não gera versão nova.
+     */
+    private static final String PATCH = "select id, title, author, isbn, version, updated_at from final table ("
+            + "update book set "
+            + "title = coalesce(:title, title), "
+            + "author = coalesce(:author, author), "
+            + "version = version + 1, "
+            + "updated_at = :updatedAt "
+            + "where id = :id "
+            + "and (coalesce(:title, title) is distinct from title "
+            + "or coalesce(:author, author) is distinct from author))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Book> findByNaturalIsbn(String isbn) {
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Book.class)
+                .loadOptional(isbn);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Book> patch(Long id, String title, String author) {
+        List<?> rows = entityManager.createNativeQuery(PATCH)
+                .setParameter("id", id)
+                .setParameter("title", new TypedParameterValue(StandardBasicTypes.STRING, title))
+                .setParameter("author", new TypedParameterValue(StandardBasicTypes.STRING, author))
+                .setParameter("updatedAt", Timestamp.from(Instant.now()))
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        evictAfterCommit(id);
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(Book.builder()
+                .id(((Number) row[0]).longValue())
+                .title((String) row[1])
+                .author((String) row[2])
+                .isbn((String) row[3])
+                .version(row[4] == null ? null : ((Number) row[4]).longValue())
+                .updatedAt(row[5] == null ? null : ((Timestamp) row[5]).toInstant())
+                .build());
+    }
+
+    /**
+     * O Hibernate não sabe do update nativo: tira do cache de segundo nível só
+     * este livro e as buscas em cache, depois do commit para que ninguém
+     * recoloque a versão antiga antes dele.
+     */
+    private void evictAfterCommit(Long id) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evictEntityData(Book.class, id);
+                cache.evictQueryRegion("book-queries");
+            }
+        });
+    }
+}
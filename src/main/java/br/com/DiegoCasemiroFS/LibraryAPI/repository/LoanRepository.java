@@ -1,13 +1,27 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
 
-public interface LoanRepository extends JpaRepository<Loan, Long> {
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanRepositoryCustom {
+
+    @EntityGraph(Loan.WITH_BOOK)
+    Optional<Loan> findWithBookById(Long id);
 
     @Query("select " +
             "case when(count(l.id) > 0) then true else false end " +
@@ -15,6 +29,28 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
             "Loan l " +
             "where " +
             "l.book = :book " +
-            "and (l.returned is null or l.returned is false)")
+            "and l.returned = false")
     boolean existsByBookAndNotReturned(@Param("book") Book book);
-}
\ No newline at end of file
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select l.book.id from Loan l where l.returned = false")
+    Stream<Long> streamOpenLoanBookIds();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select new br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan(l.id, b.id, b.isbn, l.customer, l.customerEmail, l.loanDate) "
+            + "from Loan l join l.book b "
+            + "where l.loanDate is not null and l.returned = false")
+    Stream<TrackedLoan> streamOpenTrackedLoans();
+
+    @Query("select l.book.id from Loan l "
+            + "where l.book.id in :bookIds and l.returned = false")
+    List<Long> findOpenLoanBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @EntityGraph(Loan.WITH_BOOK)
+    @Query("select l from Loan l where l.book.id in :bookIds and l.returned = false")
+    List<Loan> findOpenByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Query("update Loan l set l.returned = true where l.id in :ids")
+    int markReturned(@Param("ids") Collection<Long> ids);
+}
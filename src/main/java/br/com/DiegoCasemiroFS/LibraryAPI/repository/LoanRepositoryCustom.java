@@ -0,0 +1,33 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.domain.Slice;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
+
+public interface LoanRepositoryCustom {
+
+    /**
+     * Empréstimos do mais novo para o mais antigo, a partir do id
+     * {@code afterId} (exclusivo), trazendo só as colunas do resumo.
+     */
+    Slice<LoanSummaryDto> search(LoanFilterDto filter, Long afterId, int size);
+
+    /**
+     * Empresta o livro do isbn num único comando, que só insere se o livro
+     * existir e não tiver empréstimo aberto. Vazio quando nada foi inserido.
+     */
+    Optional<TrackedLoan> checkout(String isbn, String customer, String customerEmail, LocalDate loanDate);
+
+    /**
+     * Marca o empréstimo como devolvido, ou o reabre, num único comando e sem
+     * carregar o livro. Vazio quando o empréstimo não existe ou já estava
+     * nesse estado.
+     */
+    Optional<TrackedLoan> updateReturned(Long id, boolean returned);
+
+}
@@ -0,0 +1,145 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.repository;
+
+import java.io.Serializable;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
+
+/**
+ * Monta a consulta só com os filtros informados, para que cada combinação
+ * use o índice que a atende: isbn pelo índice único do livro e
+ * (id_book, returned), cliente por (customer, id), período por (loan_date, id).
+ */
+public class LoanRepositoryImpl implements LoanRepositoryCustom {
+
+    /*
+     * Resolve o isbn, confere se há empréstimo aberto e insere no mesmo
+     * comando; o "final table" do H2 devolve a linha inserida sem outra ida ao
+     * banco. O id vem do mesmo otimizador pooled das entidades, então os ids
+     * seguem em sequência e só um checkout a cada 50 consulta loan_seq antes
+     * do insert. Dois checkouts simultâneos podem passar pelo "not exists"; o
+     * índice único ux_loan_open_book recusa o segundo.
+     */
+    private static final String CHECKOUT = "select id, id_book from final table ("
+            + "insert into loan (id, customer, customer_email, id_book, loan_date, returned) "
+            + "select :id, :customer, :customerEmail, b.id, :loanDate, false "
+            + "from book b "
+            + "where b.isbn = :isbn "
+            + "and not exists (select 1 from loan l where l.id_book = b.id and l.returned = false))";
+
+    private static final String UPDATE_RETURNED = "select l.id, l.id_book, b.isbn, l.customer, l.customer_email, l.loan_date "
+            + "from final table (update loan set returned = :returned where id = :id and returned <> :returned) l "
+            + "join book b on b.id = l.id_book";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<LoanSummaryDto> search(LoanFilterDto filter, Long afterId, int size) {
+        StringBuilder jpql = new StringBuilder("select new br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto("
+                + "l.id, b.isbn, l.customer, l.loanDate, l.returned) "
+                + "from Loan l join l.book b where 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (afterId != null) {
+            jpql.append(" and l.id < :afterId");
+            parameters.put("afterId", afterId);
+        }
+        if (filter.getIsbn() != null && !filter.getIsbn().isBlank()) {
+            jpql.append(" and b.isbn = :isbn");
+            parameters.put("isbn", filter.getIsbn());
+        }
+        if (filter.getCustomer() != null && !filter.getCustomer().isBlank()) {
+            // Só prefixo: com curinga no início o índice não serve.
+            jpql.append(" and l.customer like :customer escape '\\'");
+            parameters.put("customer", escapeLike(filter.getCustomer().trim()) + "%");
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" and l.loanDate >= :from");
+            parameters.put("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" and l.loanDate <= :to");
+            parameters.put("to", filter.getTo());
+        }
+        if (filter.getReturned() != null) {
+            jpql.append(" and l.returned = :returned");
+            parameters.put("returned", filter.getReturned());
+        }
+        jpql.append(" order by l.id desc");
+
+        TypedQuery<LoanSummaryDto> query = entityManager.createQuery(jpql.toString(), LoanSummaryDto.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(size + 1);
+
+        List<LoanSummaryDto> content = query.getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    @Override
+    @Transactional
+    public Optional<TrackedLoan> checkout(String isbn, String customer, String customerEmail, LocalDate loanDate) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Serializable id = session.getFactory().getMetamodel().entityPersister(Loan.class)
+                .getIdentifierGenerator().generate(session, null);
+
+        List<?> rows = entityManager.createNativeQuery(CHECKOUT)
+                .setParameter("id", id)
+                .setParameter("isbn", isbn)
+                .setParameter("customer", customer)
+                .setParameter("customerEmail", customerEmail)
+                .setParameter("loanDate", loanDate)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new TrackedLoan(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                isbn, customer, customerEmail, loanDate));
+    }
+
+    @Override
+    @Transactional
+    public Optional<TrackedLoan> updateReturned(Long id, boolean returned) {
+        List<?> rows = entityManager.createNativeQuery(UPDATE_RETURNED)
+                .setParameter("id", id)
+                .setParameter("returned", returned)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new TrackedLoan(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                (String) row[2], (String) row[3], (String) row[4],
+                row[5] == null ? null : ((Date) row[5]).toLocalDate()));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,304 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice invertido em memória sobre título, autor e isbn dos livros.
+ * <p>
+ * Título e autor casam por prefixo de token, sem acentos e em qualquer ordem;
+ * o isbn é indexado por todos os seus sufixos, o que mantém a semântica de
+ * "contém" da busca por exemplo. Para título e autor as duas buscas não são
+ * equivalentes: "ulo" acha "Título" no banco e não aqui, e "titulo" acha
+ * "Título" aqui e não no banco. Enquanto o índice não foi carregado, ou quando
+ * a página pede ordenação, {@link #search} devolve vazio e a busca cai no banco.
+ */
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final int EXACT_SCORE = 2;
+    private static final int PREFIX_SCORE = 1;
+
+    private enum Field {
+        TITLE, AUTHOR, ISBN
+    }
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, EnumMap<Field, Set<String>>> documents = new HashMap<>();
+    private final EnumMap<Field, NavigableMap<String, Set<Long>>> postings = new EnumMap<>(Field.class);
+    private final Set<Long> removedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+        for (Field field : Field.values()) {
+            postings.put(field, new TreeMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0L;
+        long count = 0;
+        Slice<Book> chunk;
+        do {
+            chunk = bookRepository.findNextById(lastId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            for (Book book : chunk) {
+                lastId = book.getId();
+                lock.writeLock().lock();
+                try {
+                    if (!removedWhileLoading.contains(book.getId())) {
+                        put(book);
+                        count++;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } while (chunk.hasNext());
+
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de busca de livros carregado com {} livros", count);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.remove(book.getId());
+            put(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                removedWhileLoading.add(id);
+            }
+            drop(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os ids dos livros que atendem ao filtro, ordenados por relevância.
+     * Devolve vazio quando a consulta deve ser resolvida pelo banco: índice
+     * ainda não carregado, filtro sem termos, filtro por id ou página ordenada.
+     */
+    public Optional<Hits> search(Book filter, Pageable pageRequest) {
+        if (!ready || filter == null || filter.getId() != null || pageRequest.getSort().isSorted()) {
+            return Optional.empty();
+        }
+
+        EnumMap<Field, List<String>> query = new EnumMap<>(Field.class);
+        if (!addQuery(query, Field.TITLE, filter.getTitle())
+                || !addQuery(query, Field.AUTHOR, filter.getAuthor())
+                || !addQuery(query, Field.ISBN, filter.getIsbn())
+                || query.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<Long, Integer> scores;
+        lock.readLock().lock();
+        try {
+            scores = match(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<Long> ids = new ArrayList<>();
+        if (pageRequest.isPaged()) {
+            long from = Math.min(pageRequest.getOffset(), ranked.size());
+            long to = Math.min(from + pageRequest.getPageSize(), ranked.size());
+            ranked.subList((int) from, (int) to).forEach(entry -> ids.add(entry.getKey()));
+        } else {
+            ranked.forEach(entry -> ids.add(entry.getKey()));
+        }
+
+        return Optional.of(new Hits(ids, ranked.size()));
+    }
+
+    private boolean addQuery(EnumMap<Field, List<String>> query, Field field, String text) {
+        if (text == null || text.isBlank()) {
+            return true;
+        }
+        List<String> terms = field == Field.ISBN ? isbnTerms(text) : tokenize(text);
+        if (terms.isEmpty()) {
+            // Só pontuação: deixa o LIKE do banco decidir.
+            return false;
+        }
+        query.put(field, terms);
+        return true;
+    }
+
+    private Map<Long, Integer> match(EnumMap<Field, List<String>> query) {
+        Map<Long, Integer> result = null;
+        for (Map.Entry<Field, List<String>> entry : query.entrySet()) {
+            NavigableMap<String, Set<Long>> fieldPostings = postings.get(entry.getKey());
+            for (String term : entry.getValue()) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                for (Map.Entry<String, Set<Long>> posting : fieldPostings
+                        .subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                    int score = posting.getKey().equals(term) ? EXACT_SCORE : PREFIX_SCORE;
+                    for (Long id : posting.getValue()) {
+                        termScores.merge(id, score, Math::max);
+                    }
+                }
+                if (result == null) {
+                    result = termScores;
+                } else {
+                    Map<Long, Integer> intersection = new HashMap<>();
+                    for (Map.Entry<Long, Integer> scored : result.entrySet()) {
+                        Integer termScore = termScores.get(scored.getKey());
+                        if (termScore != null) {
+                            intersection.put(scored.getKey(), scored.getValue() + termScore);
+                        }
+                    }
+                    result = intersection;
+                }
+                if (result.isEmpty()) {
+                    return Collections.emptyMap();
+                }
+            }
+        }
+        return result == null ? Collections.emptyMap() : result;
+    }
+
+    private void put(Book book) {
+        drop(book.getId());
+
+        EnumMap<Field, Set<String>> terms = new EnumMap<>(Field.class);
+        terms.put(Field.TITLE, new HashSet<>(tokenize(book.getTitle())));
+        terms.put(Field.AUTHOR, new HashSet<>(tokenize(book.getAuthor())));
+        terms.put(Field.ISBN, isbnSuffixes(book.getIsbn()));
+
+        terms.forEach((field, fieldTerms) -> fieldTerms.forEach(term -> postings.get(field)
+                .computeIfAbsent(term, key -> new HashSet<>())
+                .add(book.getId())));
+        documents.put(book.getId(), terms);
+    }
+
+    private void drop(Long id) {
+        EnumMap<Field, Set<String>> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        terms.forEach((field, fieldTerms) -> fieldTerms.forEach(term -> {
+            Set<Long> ids = postings.get(field).get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.get(field).remove(term);
+                }
+            }
+        }));
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> isbnTerms(String isbn) {
+        String compact = String.join("", tokenize(isbn));
+        return compact.isEmpty() ? Collections.emptyList() : Collections.singletonList(compact);
+    }
+
+    private static Set<String> isbnSuffixes(String isbn) {
+        Set<String> suffixes = new HashSet<>();
+        if (isbn == null) {
+            return suffixes;
+        }
+        String compact = String.join("", tokenize(isbn));
+        for (int i = 0; i < compact.length(); i++) {
+            suffixes.add(compact.substring(i));
+        }
+        return suffixes;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hits {
+
+        private final List<Long> ids;
+        private final long total;
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+
+public interface BookExportService {
+
+    long exportBooks(OutputStream output, CatalogFormat format) throws IOException;
+
+}
@@ -0,0 +1,12 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service;
+
+import java.io.InputStream;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookImportResultDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+
+public interface BookImportService {
+
+    BookImportResultDto importBooks(InputStream input, CatalogFormat format);
+
+}
@@ -4,8 +4,10 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookCursor;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 
 public interface BookService {
@@ -16,9 +18,22 @@ public interface BookService {
 
     void delete(Book book);
 
-    Book update(Book book);
-
+    /**
+     * Grava título e autor informados em {@code changes} (os nulos ficam como
+     * estão) sem carregar o livro antes, e devolve o livro atualizado. Vazio
+     * quando o livro não existe.
+     */
+    Optional<Book> patch(Long id, Book changes);
+
+    /**
+     * Sem ordenação, responde pelo índice em memória, por prefixo de palavra e
+     * ignorando acentos, ordenado por relevância. Com ordenação, ou antes do
+     * índice carregar, usa a busca por exemplo no banco, que procura o trecho
+     * em qualquer posição e respeita acentos.
+     */
     Page<Book> find(Book filter, Pageable pageRequest);
 
+    Slice<Book> findAfter(BookCursor cursor, int size);
+
     Optional<Book> getBookByIsbn(String isbn);
 }
\ No newline at end of file
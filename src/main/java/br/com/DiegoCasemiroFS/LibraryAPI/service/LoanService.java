@@ -1,17 +1,42 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.service;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchItemDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
 
 public interface LoanService {
     
     Loan save(Loan loan);
 
+    /**
+     * Empresta o livro do isbn informado numa única ida ao banco, sem carregar
+     * o livro, e devolve o empréstimo criado.
+     */
+    TrackedLoan checkout(LoanDto loan);
+
     Optional<Loan> getById(Long id);
 
     Loan update(Loan loan);
+
+    /**
+     * Devolve (ou reabre) o empréstimo direto no banco, sem carregá-lo. Falso
+     * quando o empréstimo não existe; repetir o pedido não muda nada.
+     */
+    boolean updateReturned(Long id, boolean returned);
+
+    List<LoanBatchItemDto> saveAll(List<LoanDto> loans);
+
+    List<LoanBatchItemDto> returnAll(List<String> isbns);
+
+    Slice<LoanSummaryDto> find(LoanFilterDto filter, Long afterId, int size);
     
 }
@@ -0,0 +1,82 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.BookMapper;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exporta o catálogo inteiro lendo os livros por cursor e escrevendo cada um
+ * direto na saída. Cada livro é desanexado logo depois de escrito, então o
+ * contexto de persistência não cresce com o tamanho do catálogo, e a leitura
+ * não passa pelo cache de segundo nível.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookExportServiceImpl implements BookExportService {
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream output, CatalogFormat format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder();
+        long count = 0;
+
+        if (format == CatalogFormat.CSV) {
+            CsvLines.append(line, "id", "title", "author", "isbn");
+            writer.write(line.toString());
+        }
+
+        // Uma varredura completa despejaria os livros quentes do cache de segundo
+        // nível. A dica de consulta não basta: o Hibernate só a aplica enquanto
+        // abre o cursor, e as linhas são lidas depois.
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                line.setLength(0);
+                if (format == CatalogFormat.CSV) {
+                    CsvLines.append(line, String.valueOf(book.getId()), book.getTitle(), book.getAuthor(), book.getIsbn());
+                } else {
+                    line.append(objectMapper.writeValueAsString(bookMapper.toDto(book))).append('\n');
+                }
+                writer.write(line.toString());
+                entityManager.detach(book);
+                count++;
+            }
+        }
+        writer.flush();
+
+        log.info("Exportação do catálogo: {} livros em {}", count, format);
+        return count;
+    }
+}
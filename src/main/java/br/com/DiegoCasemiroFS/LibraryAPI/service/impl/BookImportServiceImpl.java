@@ -0,0 +1,312 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnBloomFilter;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookImportResultDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.ImportRowErrorDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.BookMapper;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.search.BookSearchIndex;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookImportService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importa catálogos linha a linha, em lotes: a memória usada depende só do
+ * tamanho do lote. Cada lote checa duplicidade com uma única consulta
+ * {@code in} e grava em uma transação, com os inserts agrupados em batch JDBC.
+ */
+@Slf4j
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_CSV_RECORD_LENGTH = 64 * 1024;
+
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final IsbnCache isbnCache;
+    private final IsbnBloomFilter isbnBloomFilter;
+    private final BookSearchIndex bookSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public BookImportServiceImpl(BookRepository bookRepository,
+                                 BookMapper bookMapper,
+                                 IsbnCache isbnCache,
+                                 IsbnBloomFilter isbnBloomFilter,
+                                 BookSearchIndex bookSearchIndex,
+                                 TransactionTemplate transactionTemplate,
+                                 EntityManager entityManager,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${library.import.chunk-size:1000}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.bookMapper = bookMapper;
+        this.isbnCache = isbnCache;
+        this.isbnBloomFilter = isbnBloomFilter;
+        this.bookSearchIndex = bookSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BookImportResultDto importBooks(InputStream input, CatalogFormat format) {
+        long start = System.nanoTime();
+        BookImportResultDto result = new BookImportResultDto();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            CsvHeader header = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                long recordLine = lineNumber;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == CatalogFormat.CSV) {
+                    // Campo entre aspas com quebra de linha: o registro continua
+                    // nas próximas linhas até as aspas fecharem.
+                    int quotes = CsvLines.countQuotes(line);
+                    if (quotes % 2 != 0) {
+                        StringBuilder record = new StringBuilder(line);
+                        String next;
+                        while (quotes % 2 != 0 && record.length() <= MAX_CSV_RECORD_LENGTH
+                                && (next = reader.readLine()) != null) {
+                            lineNumber++;
+                            record.append('\n').append(next);
+                            quotes += CsvLines.countQuotes(next);
+                        }
+                        line = record.toString();
+                    }
+                }
+                if (format == CatalogFormat.CSV && header == null) {
+                    header = new CsvHeader(CsvLines.parse(line));
+                    continue;
+                }
+
+                result.setReceived(result.getReceived() + 1);
+                try {
+                    chunk.add(new Row(recordLine, parse(line, format, header)));
+                } catch (IllegalArgumentException e) {
+                    reject(result, recordLine, null, e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, result);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getReceived() * 1_000_000_000d / elapsedNanos);
+        log.info("Importação de livros: {} recebidos, {} importados, {} rejeitados em {} ms",
+                result.getReceived(), result.getImported(), result.getRejected(), result.getElapsedMillis());
+
+        return result;
+    }
+
+    private Book parse(String line, CatalogFormat format, CsvHeader header) {
+        BookDto dto;
+        if (format == CatalogFormat.CSV) {
+            List<String> fields = CsvLines.parse(line);
+            dto = BookDto.builder()
+                    .title(header.get(fields, "title"))
+                    .author(header.get(fields, "author"))
+                    .isbn(header.get(fields, "isbn"))
+                    .build();
+        } else {
+            try {
+                dto = objectMapper.readValue(line, BookDto.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+
+        Set<ConstraintViolation<BookDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        Book book = bookMapper.toEntity(dto);
+        book.setId(null);
+        return book;
+    }
+
+    private void importChunk(List<Row> rows, BookImportResultDto result) {
+        Map<String, Row> byIsbn = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (byIsbn.putIfAbsent(row.book.getIsbn(), row) != null) {
+                reject(result, row.line, row.book.getIsbn(), "Isbn repetido no arquivo.");
+            }
+        }
+
+        // Só vai ao banco o que o filtro não consegue descartar sozinho.
+        List<String> suspects = byIsbn.keySet().stream()
+                .filter(isbnBloomFilter::mightContain)
+                .collect(Collectors.toList());
+        Set<String> existing = suspects.isEmpty()
+                ? Set.of()
+                : new HashSet<>(bookRepository.findExistingIsbns(suspects));
+
+        List<Row> pending = new ArrayList<>(byIsbn.size());
+        for (Row row : byIsbn.values()) {
+            if (existing.contains(row.book.getIsbn())) {
+                reject(result, row.line, row.book.getIsbn(), "Isbn já cadastrado.");
+            } else {
+                pending.add(row);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Book> books = pending.stream().map(row -> row.book).collect(Collectors.toList());
+        List<Book> saved = books;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                ignoreSecondLevelCache();
+                // Grava pelo repositório para que o erro do flush chegue traduzido.
+                bookRepository.saveAllAndFlush(books);
+                entityManager.clear();
+            });
+        } catch (DataAccessException e) {
+            log.warn("Falha ao gravar lote de {} livros, gravando um a um: {}",
+                    books.size(), e.getMostSpecificCause().getMessage());
+            saved = saveOneByOne(pending, result);
+        }
+
+        for (Book book : saved) {
+            isbnCache.invalidate(book.getIsbn());
+            isbnBloomFilter.add(book.getIsbn());
+            bookSearchIndex.index(book);
+        }
+        result.setImported(result.getImported() + saved.size());
+    }
+
+    /**
+     * Regrava um lote que falhou, uma linha por transação, para recusar só as
+     * linhas com problema (como um isbn gravado por outro pedido depois da
+     * checagem do lote).
+     */
+    private List<Book> saveOneByOne(List<Row> rows, BookImportResultDto result) {
+        List<Book> saved = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            // O rollback do lote deixou id e versão atribuídos pelo persist.
+            row.book.setId(null);
+            row.book.setVersion(null);
+            try {
+                saved.add(transactionTemplate.execute(status -> {
+                    ignoreSecondLevelCache();
+                    return bookRepository.saveAndFlush(row.book);
+                }));
+            } catch (DataAccessException e) {
+                reject(result, row.line, row.book.getIsbn(), bookRepository.existsByIsbn(row.book.getIsbn())
+                        ? "Isbn já cadastrado."
+                        : "Falha ao gravar: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Livros importados em massa raramente são lidos logo em seguida; sem isso
+     * cada insert entraria nas regiões do cache e despejaria os livros quentes.
+     */
+    private void ignoreSecondLevelCache() {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+    }
+
+    private void reject(BookImportResultDto result, long line, String isbn, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportRowErrorDto(line, isbn, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static final class Row {
+
+        private final long line;
+        private final Book book;
+
+        private Row(long line, Book book) {
+            this.line = line;
+            this.book = book;
+        }
+    }
+
+    private static final class CsvHeader {
+
+        private final Map<String, Integer> columns = new LinkedHashMap<>();
+
+        private CsvHeader(List<String> names) {
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("title", "author", "isbn")) {
+                if (!columns.containsKey(required)) {
+                    throw new BusinessException("Cabeçalho CSV sem a coluna " + required + ".");
+                }
+            }
+        }
+
+        private String get(List<String> fields, String column) {
+            int index = columns.get(column);
+            return index < fields.size() ? fields.get(index).trim() : null;
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.service.impl;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersionCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnBloomFilter;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookCursor;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
 import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.search.BookSearchIndex;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -19,14 +34,35 @@ import lombok.RequiredArgsConstructor;
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
-
+    private final BookSearchIndex bookSearchIndex;
+    private final IsbnCache isbnCache;
+    private final IsbnBloomFilter isbnBloomFilter;
+    private final BookVersionCache bookVersionCache;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Uma entrada negativa do cache não dispensa a consulta: ela pode ter sido
+     * gravada por uma leitura concorrente com outro insert. Se mesmo assim dois
+     * inserts do mesmo isbn passarem juntos, o índice único recusa o segundo.
+     */
     @Override
     public Book save(Book book) {
-        if (bookRepository.existsByIsbn(book.getIsbn())) {
-            throw new BusinessException("Isbn já cadastrado. Favor chamar sua Gerência.");
+        String isbn = book.getIsbn();
+        if (existsByIsbn(isbn)) {
+            throw duplicateIsbn();
+        }
+
+        Book savedBook;
+        try {
+            savedBook = bookRepository.save(book);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateIsbn();
         }
+        isbnCache.invalidate(isbn);
+        isbnBloomFilter.add(isbn);
+        bookSearchIndex.index(savedBook);
 
-        return bookRepository.save(book);
+        return savedBook;
     }
 
     @Override
@@ -41,19 +77,38 @@ public class BookServiceImpl implements BookService {
         }
 
         this.bookRepository.delete(book);
+        this.isbnCache.invalidate(book.getIsbn());
+        this.bookVersionCache.invalidate(book.getId());
+        this.isbnBloomFilter.remove(book.getIsbn());
+        this.bookSearchIndex.remove(book.getId());
     }
 
     @Override
-    public Book update(Book book) {
-        if (book == null || book.getId() == null) {
+    public Optional<Book> patch(Long id, Book changes) {
+        if (id == null) {
             throw new IllegalArgumentException("Book id cant be null.");
         }
 
-        return this.bookRepository.save(book);
+        Optional<Book> patched = bookRepository.patch(id, changes.getTitle(), changes.getAuthor());
+        if (patched.isEmpty()) {
+            // Nada foi gravado: o livro não existe ou já tinha esses valores,
+            // como quando o mesmo pedido é repetido.
+            return bookRepository.findById(id);
+        }
+
+        Book book = patched.get();
+        this.bookVersionCache.invalidate(id);
+        this.bookSearchIndex.index(book);
+
+        return patched;
     }
 
     @Override
     public Page<Book> find(Book filter, Pageable pageRequest) {
+        Optional<BookSearchIndex.Hits> hits = bookSearchIndex.search(filter, pageRequest);
+        if (hits.isPresent()) {
+            return new PageImpl<>(findAllInOrder(hits.get().getIds()), pageRequest, hits.get().getTotal());
+        }
 
         Example<Book> example = Example.of(
                 filter,
@@ -63,9 +118,54 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findAll(example, pageRequest);
     }
 
+    @Override
+    public Slice<Book> findAfter(BookCursor cursor, int size) {
+        Pageable pageRequest = PageRequest.of(0, size);
+
+        if (BookCursor.SORT_BY_TITLE.equals(cursor.getSort())) {
+            return cursor.isFirst()
+                    ? bookRepository.findFirstByTitle(pageRequest)
+                    : bookRepository.findNextByTitle(cursor.getTitle(), cursor.getId(), pageRequest);
+        }
+
+        return bookRepository.findNextById(cursor.isFirst() ? 0L : cursor.getId(), pageRequest);
+    }
+
     @Override
     public Optional<Book> getBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+        // O livro vem por id do cache de segundo nível; se o isbn dele mudou
+        // depois que a entrada foi gravada, ela não serve mais.
+        return isbnCache.get(isbn, key -> bookRepository.findByNaturalIsbn(key).map(Book::getId))
+                .flatMap(bookRepository::findById)
+                .filter(book -> Objects.equals(IsbnCache.normalize(book.getIsbn()), IsbnCache.normalize(isbn)));
+    }
+
+    private boolean existsByIsbn(String isbn) {
+        if (!isbnBloomFilter.mightContain(isbn)) {
+            return false;
+        }
+
+        boolean exists = bookRepository.existsByIsbn(isbn);
+        if (!exists) {
+            isbnBloomFilter.recordFalsePositive();
+        }
+        return exists;
+    }
+
+    private BusinessException duplicateIsbn() {
+        meterRegistry.counter("library.rejections", "reason", "duplicate_isbn").increment();
+        return new BusinessException("Isbn já cadastrado. Favor chamar sua Gerência.");
+    }
+
+    private List<Book> findAllInOrder(List<Long> ids) {
+        Map<Long, Book> books = bookRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,78 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura e escrita de registros CSV (RFC 4180). Campos entre aspas podem
+ * conter vírgulas, aspas duplicadas e quebras de linha; quem lê junta as
+ * linhas do registro enquanto {@link #countQuotes} somar um número ímpar.
+ */
+final class CsvLines {
+
+    private CsvLines() {
+    }
+
+    static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Aspas não fechadas.");
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+    /**
+     * Aspas da linha, contando as duplicadas: o registro só está completo
+     * quando a soma de todas as suas linhas é par.
+     */
+    static int countQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    static void append(StringBuilder out, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String value = values[i] == null ? "" : values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                out.append(value);
+            }
+        }
+        out.append('\n');
+    }
+}
@@ -1,37 +1,365 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.service.impl;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.ActiveLoanIndex;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchItemDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchStatus;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
 import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.lock.BookLocks;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.LoanMapper;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.OverdueLoanTracker;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
 import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.LoanService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
+@RequiredArgsConstructor
 public class LoanServiceImpl implements LoanService {
 
-    private LoanRepository loanRepository;
+    private static final int MAX_BATCH_SIZE = 1000;
 
-    public LoanServiceImpl(LoanRepository loanRepository) {
-        this.loanRepository = loanRepository;
-    }
+    private final LoanRepository loanRepository;
+    private final BookRepository bookRepository;
+    private final IsbnCache isbnCache;
+    private final ActiveLoanIndex activeLoanIndex;
+    private final LoanMapper loanMapper;
+    private final BookLocks bookLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final OverdueLoanTracker overdueLoanTracker;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public Loan save(Loan loan) {
-        if( loanRepository.existsByBookAndNotReturned(loan.getBook()) ){
+        Long bookId = loan.getBook().getId();
+
+        // O lock envolve a transação inteira: só é liberado depois do commit.
+        return bookLocks.withLock(bookId, () -> {
+            Loan savedLoan;
+            try {
+                savedLoan = transactionTemplate.execute(status -> checkout(loan));
+            } catch (OptimisticLockingFailureException e) {
+                countRejection("book_already_loaned");
+                throw new BusinessException("Book already loaned");
+            }
+            activeLoanIndex.loaned(bookId);
+            overdueLoanTracker.loaned(TrackedLoan.of(savedLoan));
+
+            return savedLoan;
+        });
+    }
+
+    @Override
+    public TrackedLoan checkout(LoanDto loan) {
+        String isbn = loan.getIsbn();
+        if (isLoaned(isbn)) {
+            countRejection("book_already_loaned");
             throw new BusinessException("Book already loaned");
         }
-        
-        return loanRepository.save(loan);
+
+        Optional<TrackedLoan> checkedOut;
+        try {
+            checkedOut = loanRepository.checkout(isbn, loan.getCustomer(), loan.getCustomerEmail(), LocalDate.now());
+        } catch (DataIntegrityViolationException e) {
+            // Outro checkout do mesmo livro gravou primeiro: ux_loan_open_book.
+            countRejection("book_already_loaned");
+            throw new BusinessException("Book already loaned");
+        }
+        TrackedLoan trackedLoan = checkedOut.orElseThrow(() -> checkoutRejected(isbn));
+        // O próximo pedido do mesmo livro pode ser recusado só pelo índice.
+        isbnCache.put(trackedLoan.getIsbn(), trackedLoan.getBookId());
+        activeLoanIndex.loaned(trackedLoan.getBookId());
+        overdueLoanTracker.loaned(trackedLoan);
+
+        return trackedLoan;
     }
 
     @Override
     public Optional<Loan> getById(Long id) {
-        return loanRepository.findById(id);
+        return loanRepository.findWithBookById(id);
     }
 
     @Override
     public Loan update(Loan loan) {
+        return bookLocks.withLock(loan.getBook().getId(), () -> {
+            Loan updatedLoan = loanRepository.save(loan);
+
+            if (Boolean.TRUE.equals(loan.getReturned())) {
+                // Devolver de novo um empréstimo antigo não pode liberar o livro
+                // de um empréstimo mais novo, por isso confirma no banco.
+                if (!loanRepository.existsByBookAndNotReturned(loan.getBook())) {
+                    activeLoanIndex.returned(loan.getBook().getId());
+                }
+                overdueLoanTracker.returned(loan.getId());
+            } else {
+                activeLoanIndex.loaned(loan.getBook().getId());
+                overdueLoanTracker.loaned(TrackedLoan.of(loan));
+            }
+
+            return updatedLoan;
+        });
+    }
+
+    @Override
+    public boolean updateReturned(Long id, boolean returned) {
+        Optional<TrackedLoan> updated;
+        try {
+            updated = loanRepository.updateReturned(id, returned);
+        } catch (DataIntegrityViolationException e) {
+            // Reabrir um empréstimo de um livro que já foi emprestado de novo.
+            countRejection("book_already_loaned");
+            throw new BusinessException("Book already loaned");
+        }
+        if (updated.isEmpty()) {
+            // Já estava nesse estado (pedido repetido) ou não existe.
+            return loanRepository.existsById(id);
+        }
+
+        TrackedLoan loan = updated.get();
+        if (returned) {
+            // ux_loan_open_book garante que este era o único empréstimo aberto do livro.
+            activeLoanIndex.returned(loan.getBookId());
+            overdueLoanTracker.returned(loan.getLoanId());
+        } else {
+            activeLoanIndex.loaned(loan.getBookId());
+            overdueLoanTracker.loaned(loan);
+        }
+
+        return true;
+    }
+
+    @Override
+    public List<LoanBatchItemDto> saveAll(List<LoanDto> loans) {
+        checkBatchSize(loans.size());
+        Map<String, Long> bookIds = resolveBookIds(loans.stream().map(LoanDto::getIsbn).collect(Collectors.toList()));
+
+        return bookLocks.withLocks(bookIds.values(), () -> {
+            List<TrackedLoan> savedLoans = new ArrayList<>();
+            List<LoanBatchItemDto> items;
+            try {
+                items = transactionTemplate.execute(status -> checkoutAll(loans, bookIds, savedLoans));
+            } catch (DataIntegrityViolationException e) {
+                // Um checkout avulso, que não passa pelos locks, emprestou um dos
+                // livros depois da leitura dos empréstimos abertos. Refaz o lote
+                // uma vez: a nova leitura já vê esse empréstimo como ALREADY_LOANED.
+                savedLoans.clear();
+                try {
+                    items = transactionTemplate.execute(status -> checkoutAll(loans, bookIds, savedLoans));
+                } catch (DataIntegrityViolationException again) {
+                    countRejection("book_already_loaned");
+                    throw new BusinessException("Book already loaned");
+                }
+            }
+            for (TrackedLoan savedLoan : savedLoans) {
+                activeLoanIndex.loaned(savedLoan.getBookId());
+                overdueLoanTracker.loaned(savedLoan);
+            }
+            for (LoanBatchItemDto item : items) {
+                if (item.getStatus() == LoanBatchStatus.ALREADY_LOANED) {
+                    countRejection("book_already_loaned");
+                } else if (item.getStatus() == LoanBatchStatus.BOOK_NOT_FOUND) {
+                    countRejection("book_not_found");
+                }
+            }
+
+            return items;
+        });
+    }
+
+    @Override
+    public List<LoanBatchItemDto> returnAll(List<String> isbns) {
+        checkBatchSize(isbns.size());
+        Map<String, Long> bookIds = resolveBookIds(isbns);
+
+        return bookLocks.withLocks(bookIds.values(), () -> {
+            List<Loan> closedLoans = transactionTemplate.execute(status -> returnOpenLoans(bookIds.values()));
+            Map<Long, Long> returnedLoans = new HashMap<>();
+            for (Loan closedLoan : closedLoans) {
+                returnedLoans.merge(closedLoan.getBook().getId(), closedLoan.getId(), Math::max);
+                overdueLoanTracker.returned(closedLoan.getId());
+            }
+            // Todos os empréstimos abertos do livro foram fechados: ele fica livre.
+            returnedLoans.keySet().forEach(activeLoanIndex::returned);
+
+            List<LoanBatchItemDto> items = new ArrayList<>(isbns.size());
+            for (String isbn : isbns) {
+                Long bookId = bookIds.get(isbn);
+                Long loanId = bookId == null ? null : returnedLoans.remove(bookId);
+                if (bookId == null) {
+                    items.add(item(isbn, LoanBatchStatus.BOOK_NOT_FOUND, null));
+                } else if (loanId == null) {
+                    items.add(item(isbn, LoanBatchStatus.NOT_LOANED, null));
+                } else {
+                    items.add(item(isbn, LoanBatchStatus.RETURNED, loanId));
+                }
+            }
+
+            return items;
+        });
+    }
+
+    @Override
+    public Slice<LoanSummaryDto> find(LoanFilterDto filter, Long afterId, int size) {
+        return loanRepository.search(filter, afterId, size);
+    }
+
+    /**
+     * Os empréstimos apontam para o livro por getReferenceById: basta saber
+     * quais ids ainda existem, sem carregar os livros. O isbn acompanhado no
+     * prazo vem do próprio pedido, já que a referência não é carregada.
+     */
+    private List<LoanBatchItemDto> checkoutAll(List<LoanDto> loans, Map<String, Long> bookIds,
+                                               List<TrackedLoan> savedLoans) {
+        Set<Long> existing = bookIds.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(bookRepository.findExistingIds(bookIds.values()));
+        Set<Long> unavailable = existing.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(loanRepository.findOpenLoanBookIds(existing));
+
+        LocalDate today = LocalDate.now();
+        List<LoanBatchItemDto> items = new ArrayList<>(loans.size());
+        List<LoanBatchItemDto> loanedItems = new ArrayList<>();
+        List<Loan> newLoans = new ArrayList<>();
+        for (LoanDto dto : loans) {
+            Long bookId = bookIds.get(dto.getIsbn());
+            if (bookId == null || !existing.contains(bookId)) {
+                items.add(item(dto.getIsbn(), LoanBatchStatus.BOOK_NOT_FOUND, null));
+            } else if (!unavailable.add(bookId)) {
+                // Já emprestado no banco ou repetido no próprio lote.
+                items.add(item(dto.getIsbn(), LoanBatchStatus.ALREADY_LOANED, null));
+            } else {
+                LoanBatchItemDto item = item(dto.getIsbn(), LoanBatchStatus.LOANED, null);
+                items.add(item);
+                loanedItems.add(item);
+                Loan loan = loanMapper.toEntity(dto);
+                loan.setBook(bookRepository.getReferenceById(bookId));
+                loan.setLoanDate(today);
+                newLoans.add(loan);
+            }
+        }
+
+        List<Loan> saved = loanRepository.saveAll(newLoans);
+        for (int i = 0; i < saved.size(); i++) {
+            Loan loan = saved.get(i);
+            LoanBatchItemDto item = loanedItems.get(i);
+            item.setLoanId(loan.getId());
+            savedLoans.add(new TrackedLoan(loan.getId(), loan.getBook().getId(), item.getIsbn(),
+                    loan.getCustomer(), loan.getCustomerEmail(), loan.getLoanDate()));
+        }
+
+        return items;
+    }
+
+    private List<Loan> returnOpenLoans(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Loan> openLoans = loanRepository.findOpenByBookIds(bookIds);
+        if (!openLoans.isEmpty()) {
+            loanRepository.markReturned(openLoans.stream().map(Loan::getId).collect(Collectors.toList()));
+        }
+
+        return openLoans;
+    }
+
+    private Map<String, Long> resolveBookIds(List<String> isbns) {
+        Set<String> distinct = isbns.stream()
+                .filter(isbn -> isbn != null && !isbn.isEmpty())
+                .collect(Collectors.toSet());
+        if (distinct.isEmpty()) {
+            return new HashMap<>();
+        }
+        return isbnCache.getAll(distinct, missing -> bookRepository.findByIsbnIn(missing).stream()
+                .collect(Collectors.toMap(Book::getIsbn, Book::getId, (first, second) -> first)));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new BusinessException("Batch size must not exceed " + MAX_BATCH_SIZE);
+        }
+    }
+
+    private LoanBatchItemDto item(String isbn, LoanBatchStatus status, Long loanId) {
+        return LoanBatchItemDto.builder()
+                .isbn(isbn)
+                .status(status)
+                .loanId(loanId)
+                .build();
+    }
+
+    /**
+     * Só roda quando o checkout não inseriu nada, para dizer se faltou o livro
+     * ou se ele já estava emprestado.
+     */
+    private BusinessException checkoutRejected(String isbn) {
+        if (isbn == null || !bookRepository.existsByIsbn(isbn)) {
+            countRejection("book_not_found");
+            return new BusinessException("Book not found for passed isbn");
+        }
+        countRejection("book_already_loaned");
+        return new BusinessException("Book already loaned");
+    }
+
+    private Loan checkout(Loan loan) {
+        // Incrementa a versão do livro no commit: se outra transação emprestar
+        // o mesmo livro ao mesmo tempo, uma das duas falha por lock otimista.
+        Book book = bookRepository.findForCheckout(loan.getBook().getId())
+                .orElseThrow(() -> {
+                    countRejection("book_not_found");
+                    return new BusinessException("Book not found");
+                });
+        loan.setBook(book);
+
+        if( isLoaned(loan) ){
+            countRejection("book_already_loaned");
+            throw new BusinessException("Book already loaned");
+        }
+
         return loanRepository.save(loan);
     }
-}
\ No newline at end of file
+
+    /**
+     * Recusa sem ir ao banco quando o isbn já foi resolvido antes e o índice
+     * diz que o livro está emprestado. Nos demais casos quem decide é o
+     * checkout no banco.
+     */
+    private boolean isLoaned(String isbn) {
+        return activeLoanIndex.isReady()
+                && isbnCache.getIfPresent(isbn).map(activeLoanIndex::isLoaned).orElse(false);
+    }
+
+    private boolean isLoaned(Loan loan) {
+        if (activeLoanIndex.isReady()) {
+            return activeLoanIndex.isLoaned(loan.getBook().getId());
+        }
+        return loanRepository.existsByBookAndNotReturned(loan.getBook());
+    }
+
+    private void countRejection(String reason) {
+        meterRegistry.counter("library.rejections", "reason", reason).increment();
+    }
+}
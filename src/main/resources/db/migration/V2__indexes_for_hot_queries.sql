@@ -0,0 +1,15 @@
+-- findByIsbn, existsByIsbn e a checagem de duplicados da importação.
+create unique index ux_book_isbn on book (isbn);
+
+-- Paginação por cursor ordenada por título.
+create index ix_book_title_id on book (title, id);
+
+update loan set returned = false where returned is null;
+alter table loan alter column returned set default false;
+alter table loan alter column returned set not null;
+
+-- Empréstimo aberto de um livro: existsByBookAndNotReturned, checkout e devolução em lote.
+create index ix_loan_book_returned on loan (id_book, returned);
+
+-- Empréstimos abertos por data, lidos na subida pelo rastreador de atrasos.
+create index ix_loan_returned_loan_date on loan (returned, loan_date);
@@ -0,0 +1,5 @@
+-- Pesquisa de empréstimos por prefixo do cliente, do mais novo para o mais antigo.
+create index ix_loan_customer_id on loan (customer, id);
+
+-- Pesquisa de empréstimos por período.
+create index ix_loan_loan_date_id on loan (loan_date, id);
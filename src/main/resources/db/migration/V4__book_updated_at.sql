@@ -0,0 +1,2 @@
+-- Momento da última alteração do livro, usado no Last-Modified dos GETs condicionais.
+alter table book add column updated_at timestamp;
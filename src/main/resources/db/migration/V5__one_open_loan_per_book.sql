@@ -0,0 +1,5 @@
+-- Id do livro enquanto o empréstimo está aberto, nulo depois da devolução.
+-- O índice único garante no banco um só empréstimo aberto por livro, mesmo
+-- quando dois checkouts passam juntos pelo "not exists".
+alter table loan add column open_book_id bigint generated always as (case when returned then null else id_book end);
+create unique index ux_loan_open_book on loan (open_book_id);
@@ -0,0 +1,38 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ActiveLoanIndexTest {
+
+    @Test
+    @DisplayName("Deve corrigir o índice de empréstimos ativos a partir do banco")
+    public void reconcileTest() {
+        // Cenário
+        LoanRepository loanRepository = Mockito.mock(LoanRepository.class);
+        Mockito.when(loanRepository.streamOpenLoanBookIds())
+                .thenReturn(Stream.of(1L, 2L))
+                .thenReturn(Stream.of(2L, 3L));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ActiveLoanIndex activeLoanIndex = new ActiveLoanIndex(loanRepository, meterRegistry);
+        activeLoanIndex.load();
+
+        // Execução
+        activeLoanIndex.reconcile();
+
+        // Validação
+        Assertions.assertThat(activeLoanIndex.isLoaned(1L)).isFalse();
+        Assertions.assertThat(activeLoanIndex.isLoaned(2L)).isTrue();
+        Assertions.assertThat(activeLoanIndex.isLoaned(3L)).isTrue();
+        Assertions.assertThat(meterRegistry.get("loans.active").gauge().value()).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.get("loans.active.reconciliation.drift").counter().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("Deve reconhecer todos os isbns incluídos")
+    public void noFalseNegativesTest() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 5000; i++) {
+            filter.add("978" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertThat(filter.mightContain("978" + i)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve crescer em estágios mantendo a taxa de falso positivo configurada")
+    public void growsWithinFalsePositiveRateTest() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 10000; i++) {
+            filter.add("978" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("979-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertThat(filter.stages()).isGreaterThan(1);
+        Assertions.assertThat(falsePositives / 100000.0).isLessThan(0.01);
+        Assertions.assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.01);
+    }
+}
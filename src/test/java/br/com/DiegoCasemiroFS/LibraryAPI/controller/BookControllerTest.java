@@ -1,8 +1,15 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,24 +19,40 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersion;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersionCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.config.MapperConfig;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookCursor;
 import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookImportResultDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookPatchDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookExportService;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookImportService;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
 
 @AutoConfigureMockMvc
+@Import(MapperConfig.class)
 @ActiveProfiles("test")
 // @ExtendWith(SpringExtension.class)
 @WebMvcTest(controllers = BookController.class)
@@ -43,6 +66,15 @@ public class BookControllerTest {
 	@MockBean
 	BookService bookService;
 
+	@MockBean
+	BookImportService bookImportService;
+
+	@MockBean
+	BookExportService bookExportService;
+
+	@MockBean
+	BookVersionCache bookVersionCache;
+
 	@Test
 	@DisplayName("Deve criar um livro com sucesso")
 	public void createBookTest() throws Exception {
@@ -149,6 +181,155 @@ public class BookControllerTest {
 				.andExpect(MockMvcResultMatchers.jsonPath("isbn").value(book.getIsbn()));
 	}
 
+	@Test
+	@DisplayName("Deve devolver ETag e Last-Modified ao obter um livro")
+	public void getBookDetailsWithValidatorsTest() throws Exception {
+		// Cenário
+		Long id = 1l;
+		Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+		Book book = Book.builder()
+				.id(id)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123456789")
+				.version(3L)
+				.updatedAt(updatedAt)
+				.build();
+
+		BDDMockito.given(bookService.getById(id)).willReturn(Optional.of(book));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/" + id))
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3-json\""))
+				.andExpect(MockMvcResultMatchers.header().dateValue(HttpHeaders.LAST_MODIFIED, updatedAt.toEpochMilli()))
+				.andExpect(MockMvcResultMatchers.jsonPath("title").value(book.getTitle()));
+
+		Mockito.verify(bookVersionCache).put(Mockito.any(BookVersion.class));
+	}
+
+	@Test
+	@DisplayName("Deve responder 304 sem consultar o livro quando a ETag em cache não mudou")
+	public void getBookNotModifiedTest() throws Exception {
+		// Cenário
+		Long id = 1l;
+		BDDMockito.given(bookVersionCache.getIfPresent(id))
+				.willReturn(new BookVersion(id, 3L, Instant.parse("2024-03-01T10:15:30Z")));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/" + id))
+				.header(HttpHeaders.IF_NONE_MATCH, "\"1-3-json\"")
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.content().string(""));
+
+		Mockito.verify(bookService, Mockito.never()).getById(Mockito.anyLong());
+	}
+
+	@Test
+	@DisplayName("Deve obter o livro quando a ETag recebida estiver desatualizada")
+	public void getBookModifiedTest() throws Exception {
+		// Cenário
+		Long id = 1l;
+		BDDMockito.given(bookVersionCache.getIfPresent(id))
+				.willReturn(new BookVersion(id, 4L, null));
+		Book book = Book.builder()
+				.id(id)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123456789")
+				.version(4L)
+				.build();
+		BDDMockito.given(bookService.getById(id)).willReturn(Optional.of(book));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/" + id))
+				.header(HttpHeaders.IF_NONE_MATCH, "\"1-3-json\"")
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-4-json\""))
+				.andExpect(MockMvcResultMatchers.jsonPath("id").value(id));
+	}
+
+	@Test
+	@DisplayName("Não deve validar com a ETag do JSON um livro pedido em CBOR")
+	public void getBookEtagPerRepresentationTest() throws Exception {
+		// Cenário
+		Long id = 1l;
+		BDDMockito.given(bookVersionCache.getIfPresent(id)).willReturn(new BookVersion(id, 3L, null));
+		Book book = Book.builder()
+				.id(id)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123456789")
+				.version(3L)
+				.build();
+		BDDMockito.given(bookService.getById(id)).willReturn(Optional.of(book));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/" + id))
+				.header(HttpHeaders.IF_NONE_MATCH, "\"1-3-json\"")
+				.accept(MediaType.APPLICATION_CBOR);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3-cbor\""))
+				.andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+	}
+
+	@Test
+	@DisplayName("Deve seguir a preferência do Accept na escolha do formato e da ETag")
+	public void getBookEtagFollowsAcceptQualityTest() throws Exception {
+		// Cenário
+		Long id = 1l;
+		BDDMockito.given(bookVersionCache.getIfPresent(id)).willReturn(new BookVersion(id, 3L, null));
+		Book book = Book.builder()
+				.id(id)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123456789")
+				.version(3L)
+				.build();
+		BDDMockito.given(bookService.getById(id)).willReturn(Optional.of(book));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/" + id))
+				.header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor");
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3-cbor\""))
+				.andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR));
+	}
+
+	@Test
+	@DisplayName("Deve recusar com 406 um livro pedido num formato que a API não produz")
+	public void getBookNotAcceptableTest() throws Exception {
+		// Cenário
+		Long id = 1l;
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/" + id))
+				.accept(MediaType.APPLICATION_XML);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isNotAcceptable());
+		Mockito.verifyNoInteractions(bookService);
+	}
+
 	@Test
 	@DisplayName("Deve retornar Resource Not Found quando o livro procurado não existir")
 	public void bookNotFound() throws Exception {
@@ -196,16 +377,11 @@ public class BookControllerTest {
 		Long id = 1L;
 		String json = new ObjectMapper().writeValueAsString(createBookDto());
 
-		Book updatingBook = Book.builder()
-				.id(1L)
-				.title("some title")
-				.author("some author")
-				.isbn("321")
+		Book changes = Book.builder()
+				.title(createBookDto().getTitle())
+				.author(createBookDto().getAuthor())
 				.build();
 
-		BDDMockito.given(bookService.getById(id))
-				.willReturn(Optional.of(updatingBook));
-
 		Book updatedBook = Book.builder()
 				.id(id)
 				.title("Titulo")
@@ -213,8 +389,8 @@ public class BookControllerTest {
 				.isbn("123456789")
 				.build();
 
-		BDDMockito.given(bookService.update(updatingBook))
-				.willReturn(updatedBook);
+		BDDMockito.given(bookService.patch(id, changes))
+				.willReturn(Optional.of(updatedBook));
 
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.put(BOOK_API.concat("/" + id))
 				.content(json)
@@ -227,6 +403,7 @@ public class BookControllerTest {
 				.andExpect(MockMvcResultMatchers.jsonPath("title").value(createBookDto().getTitle()))
 				.andExpect(MockMvcResultMatchers.jsonPath("author").value(createBookDto().getAuthor()))
 				.andExpect(MockMvcResultMatchers.jsonPath("isbn").value(123456789));
+		Mockito.verify(bookService, Mockito.never()).getById(Mockito.anyLong());
 	}
 
 	@Test
@@ -234,7 +411,7 @@ public class BookControllerTest {
 	public void updateBookInexistent() throws Exception {
 		String json = new ObjectMapper().writeValueAsString(createBookDto());
 
-		BDDMockito.given(bookService.getById(Mockito.anyLong()))
+		BDDMockito.given(bookService.patch(Mockito.anyLong(), Mockito.any(Book.class)))
 				.willReturn(Optional.empty());
 
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.put(BOOK_API.concat("/" + 1L))
@@ -246,6 +423,48 @@ public class BookControllerTest {
 				.andExpect(MockMvcResultMatchers.status().isNotFound());
 	}
 
+	@Test
+	@DisplayName("Deve alterar só os campos informados no PATCH de um livro")
+	public void patchBookTest() throws Exception {
+		// Cenário
+		Long id = 1L;
+		String json = new ObjectMapper().writeValueAsString(BookPatchDto.builder().title("Novo titulo").build());
+
+		Book patchedBook = Book.builder().id(id).title("Novo titulo").author("Autor").isbn("123").build();
+		BDDMockito.given(bookService.patch(id, Book.builder().title("Novo titulo").build()))
+				.willReturn(Optional.of(patchedBook));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.patch(BOOK_API.concat("/" + id))
+				.content(json)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("title").value("Novo titulo"))
+				.andExpect(MockMvcResultMatchers.jsonPath("author").value("Autor"));
+	}
+
+	@Test
+	@DisplayName("Deve recusar o PATCH de um livro com campo vazio")
+	public void patchBookWithEmptyFieldTest() throws Exception {
+		// Cenário
+		String json = new ObjectMapper().writeValueAsString(BookPatchDto.builder().author("").build());
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.patch(BOOK_API.concat("/1"))
+				.content(json)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verify(bookService, Mockito.never()).patch(Mockito.anyLong(), Mockito.any(Book.class));
+	}
+
 	@Test
 	@DisplayName("Deve filtrar livros")
 	public void findBooksTest() throws Exception {
@@ -272,9 +491,237 @@ public class BookControllerTest {
 		mvc.perform(request)
 				.andExpect(MockMvcResultMatchers.status().isOk())
 				.andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+				.andExpect(MockMvcResultMatchers.jsonPath("content[0].isbn").value(book.getIsbn()))
 				.andExpect(MockMvcResultMatchers.jsonPath("totalElements").value(1))
-				.andExpect(MockMvcResultMatchers.jsonPath("pageable.pageSize").value(100))
-				.andExpect(MockMvcResultMatchers.jsonPath("pageable.pageNumber").value(0));
+				.andExpect(MockMvcResultMatchers.jsonPath("size").value(100))
+				.andExpect(MockMvcResultMatchers.jsonPath("page").value(0))
+				.andExpect(MockMvcResultMatchers.jsonPath("pageable").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Deve devolver a página de livros em CBOR quando o cliente pedir")
+	public void findBooksCborTest() throws Exception {
+		// Cenário
+		Book book = Book.builder()
+				.id(1L)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123")
+				.build();
+
+		BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+				.willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 10), 1));
+
+		// Execução
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=10"))
+						.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, Matchers.containsString(HttpHeaders.ACCEPT)))
+				.andReturn();
+
+		// Validação
+		JsonNode page = new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray());
+		Assertions.assertThat(page.get("content").get(0).get("isbn").asText()).isEqualTo("123");
+		Assertions.assertThat(page.get("totalElements").asLong()).isEqualTo(1);
+		Assertions.assertThat(page.has("pageable")).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve responder 304 ao repetir a busca com a ETag da página")
+	public void findBooksNotModifiedTest() throws Exception {
+		// Cenário
+		Book book = Book.builder()
+				.id(1L)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123")
+				.version(2L)
+				.build();
+
+		BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+				.willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 10), 1));
+
+		MvcResult first = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?title=Titulo&page=0&size=10"))
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+				.andReturn();
+		String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?title=Titulo&page=0&size=10"))
+				.header(HttpHeaders.IF_NONE_MATCH, etag)
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.content().string(""));
+	}
+
+	@Test
+	@DisplayName("Deve gerar ETags diferentes para a mesma página em JSON e em CBOR")
+	public void findBooksEtagPerRepresentationTest() throws Exception {
+		// Cenário
+		Book book = Book.builder()
+				.id(1L)
+				.title("Titulo")
+				.author("Autor")
+				.isbn("123")
+				.version(2L)
+				.build();
+
+		BDDMockito.given(bookService.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+				.willReturn(new PageImpl<Book>(Arrays.asList(book), PageRequest.of(0, 10), 1));
+
+		// Execução
+		String json = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=10"))
+				.accept(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String cbor = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=10"))
+				.accept(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// Validação
+		Assertions.assertThat(json).isNotNull();
+		Assertions.assertThat(cbor).isNotNull().isNotEqualTo(json);
+	}
+
+	@Test
+	@DisplayName("Deve paginar livros por cursor sem contar o total")
+	public void findBooksAfterCursorTest() throws Exception {
+		// Cenário
+		Book book = Book.builder()
+				.id(7L)
+				.title(createBookDto().getTitle())
+				.author(createBookDto().getAuthor())
+				.isbn(createBookDto().getIsbn())
+				.build();
+
+		BDDMockito.given(bookService.findAfter(Mockito.any(BookCursor.class), Mockito.eq(1)))
+				.willReturn(new SliceImpl<Book>(Arrays.asList(book), PageRequest.of(0, 1), true));
+
+		String after = new BookCursor(BookCursor.SORT_BY_ID, 6L, null).encode();
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?size=1&after=" + after))
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+				.andExpect(MockMvcResultMatchers.jsonPath("hasNext").value(true))
+				.andExpect(MockMvcResultMatchers.jsonPath("next")
+						.value(new BookCursor(BookCursor.SORT_BY_ID, 7L, null).encode()))
+				.andExpect(MockMvcResultMatchers.jsonPath("totalElements").doesNotExist());
+
+		Mockito.verify(bookService).findAfter(new BookCursor(BookCursor.SORT_BY_ID, 6L, null), 1);
+	}
+
+	@Test
+	@DisplayName("Deve retornar erro ao receber um cursor inválido")
+	public void findBooksWithInvalidCursorTest() throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?after=invalido"))
+				.accept(MediaType.APPLICATION_JSON);
+
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("Cursor inválido."));
+	}
+
+	@Test
+	@DisplayName("Deve recusar filtros junto com o cursor")
+	public void findBooksAfterCursorWithFilterTest() throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?after=&author=Autor"))
+				.accept(MediaType.APPLICATION_JSON);
+
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("errors[0]")
+						.value("Filtros por título, autor ou isbn não são aceitos com cursor."));
+		Mockito.verifyNoInteractions(bookService);
+	}
+
+	@Test
+	@DisplayName("Deve importar um catálogo CSV pelo corpo da requisição")
+	public void importCsvTest() throws Exception {
+		// Cenário
+		BookImportResultDto result = new BookImportResultDto();
+		result.setReceived(1);
+		result.setImported(1);
+
+		BDDMockito.given(bookImportService.importBooks(Mockito.any(), Mockito.eq(CatalogFormat.CSV)))
+				.willReturn(result);
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/import"))
+				.contentType("text/csv")
+				.accept(MediaType.APPLICATION_JSON)
+				.content("title,author,isbn\nTitulo,Autor,12345678\n");
+
+		// Validação
+		mvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("received").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("imported").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("errors", Matchers.hasSize(0)));
+	}
+
+	@Test
+	@DisplayName("Deve exportar o catálogo compactado com gzip")
+	public void exportGzipTest() throws Exception {
+		// Cenário
+		BDDMockito.given(bookExportService.exportBooks(Mockito.any(), Mockito.eq(CatalogFormat.CSV)))
+				.willAnswer(invocation -> {
+					OutputStream output = invocation.getArgument(0);
+					output.write("id,title,author,isbn\n".getBytes(StandardCharsets.UTF_8));
+					return 0L;
+				});
+
+		// Execução
+		MvcResult asyncResult = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=csv&gzip=true")))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+
+		// Validação
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("Content-Encoding", "gzip"))
+				.andExpect(MockMvcResultMatchers.content().contentType("text/csv"))
+				.andReturn();
+
+		byte[] body = result.getResponse().getContentAsByteArray();
+		try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			Assertions.assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8))
+					.isEqualTo("id,title,author,isbn\n");
+		}
+	}
+
+	@Test
+	@DisplayName("Deve aplicar à exportação o timeout assíncrono próprio")
+	public void exportTimeoutTest() throws Exception {
+		// Cenário
+		BDDMockito.given(bookExportService.exportBooks(Mockito.any(), Mockito.eq(CatalogFormat.NDJSON)))
+				.willReturn(0L);
+
+		// Execução
+		MvcResult asyncResult = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+
+		// Validação
+		Assertions.assertThat(asyncResult.getRequest().getAsyncContext().getTimeout())
+				.isEqualTo(Duration.ofMinutes(30).toMillis());
+	}
+
+	@Test
+	@DisplayName("Deve retornar erro ao exportar em formato não suportado")
+	public void exportUnsupportedFormatTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export?format=xml")))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("errors[0]").value("Formato não suportado: xml"));
 	}
 
 	private BookDto createBookDto() {
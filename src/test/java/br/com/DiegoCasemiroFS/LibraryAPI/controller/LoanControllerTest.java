@@ -1,8 +1,10 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.controller;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.List;
 
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -21,14 +25,20 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchItemDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchStatus;
 import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.dto.ReturnedLoanDto;
-import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
-import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.notification.LoanNotifier;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.OverdueLoanTracker;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
 import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
-import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.LoanService;
 
 @AutoConfigureMockMvc
@@ -41,9 +51,11 @@ public class LoanControllerTest {
 	@Autowired
 	MockMvc mockMvc;
 	@MockBean
-	BookService bookService;
-	@MockBean
 	LoanService loanService;
+	@MockBean
+	OverdueLoanTracker overdueLoanTracker;
+	@MockBean
+	LoanNotifier loanNotifier;
 
 	@Test
 	@DisplayName("Deve realizar um empréstimo")
@@ -55,11 +67,8 @@ public class LoanControllerTest {
 
 		String json = new ObjectMapper().writeValueAsString(loanDto);
 
-		Book book = Book.builder().id(1L).isbn("123456789").build();
-		BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Optional.of(book));
-
-		Loan loan = Loan.builder().id(1L).customer("Fulano").book(book).loanDate(LocalDate.now()).build();
-		BDDMockito.given(loanService.save(Mockito.any(Loan.class))).willReturn(loan);
+		TrackedLoan loan = new TrackedLoan(1L, 1L, "123456789", "Fulano", null, LocalDate.now());
+		BDDMockito.given(loanService.checkout(loanDto)).willReturn(loan);
 
 		// Execução
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API)
@@ -71,6 +80,7 @@ public class LoanControllerTest {
 		mockMvc.perform(request)
 				.andExpect(MockMvcResultMatchers.status().isCreated())
 				.andExpect(MockMvcResultMatchers.content().string("1"));
+		Mockito.verify(loanNotifier).loanConfirmed(loan);
 	}
 
 	@Test
@@ -84,7 +94,8 @@ public class LoanControllerTest {
 
 		String json = new ObjectMapper().writeValueAsString(loanDto);
 
-		BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Optional.empty());
+		BDDMockito.given(loanService.checkout(loanDto))
+				.willThrow(new BusinessException("Book not found for passed isbn"));
 
 		// Execução
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API)
@@ -105,12 +116,10 @@ public class LoanControllerTest {
 	public void loanedBookErrorOnCreateLoanTest() throws Exception {
 		// Cenário
 		LoanDto loanDto = LoanDto.builder().isbn("123456789").customer("Fulano").build();
-		Book book = Book.builder().id(1L).isbn("123456789").build();
 
 		String json = new ObjectMapper().writeValueAsString(loanDto);
 
-		BDDMockito.given(bookService.getBookByIsbn("123456789")).willReturn(Optional.of(book));
-		BDDMockito.given(loanService.save(Mockito.any(Loan.class)))
+		BDDMockito.given(loanService.checkout(loanDto))
 				.willThrow(new BusinessException("Book already loaned"));
 
 		// E#xecução
@@ -130,12 +139,11 @@ public class LoanControllerTest {
     @DisplayName("Deve retornar um livro")
     public void returnBookTest() throws Exception {
         // Cenário
-		Loan loan = Loan.builder().id(1L).build();
 		ReturnedLoanDto returnedLoanDTO = ReturnedLoanDto.builder().returned(true).build();
 		String json = new ObjectMapper().writeValueAsString(returnedLoanDTO);
 
 		// Execução
-        BDDMockito.given(loanService.getById(Mockito.anyLong())).willReturn(Optional.of(loan));
+        BDDMockito.given(loanService.updateReturned(1L, true)).willReturn(true);
 
 		// Validação
         mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
@@ -143,6 +151,7 @@ public class LoanControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(json))
                 .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(loanService, Mockito.never()).getById(Mockito.anyLong());
     }
 
 	@Test
@@ -151,7 +160,7 @@ public class LoanControllerTest {
         ReturnedLoanDto returnedLoanDto = ReturnedLoanDto.builder().returned(true).build();
         String json = new ObjectMapper().writeValueAsString(returnedLoanDto);
 
-        BDDMockito.given(loanService.getById(Mockito.anyLong())).willReturn(Optional.empty());
+        BDDMockito.given(loanService.updateReturned(1L, true)).willReturn(false);
 
         mockMvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
                 .accept(MediaType.APPLICATION_JSON)
@@ -159,5 +168,171 @@ public class LoanControllerTest {
                 .content(json))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
-}
 
+	@Test
+	@DisplayName("Deve retornar erro de validação ao devolver sem informar o campo returned")
+	public void returnBookWithoutReturnedTest() throws Exception {
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{}");
+
+		// Validação
+		mockMvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+		Mockito.verifyNoInteractions(loanService);
+	}
+
+	@Test
+	@DisplayName("Deve emprestar um lote de livros")
+	public void createLoanBatchTest() throws Exception {
+		// Cenário
+		List<LoanDto> loans = Arrays.asList(
+				LoanDto.builder().isbn("123").customer("Fulano").build(),
+				LoanDto.builder().isbn("456").customer("Fulano").build());
+
+		String json = new ObjectMapper().writeValueAsString(loans);
+
+		BDDMockito.given(loanService.saveAll(Mockito.anyList())).willReturn(Arrays.asList(
+				LoanBatchItemDto.builder().isbn("123").status(LoanBatchStatus.LOANED).loanId(1L).build(),
+				LoanBatchItemDto.builder().isbn("456").status(LoanBatchStatus.ALREADY_LOANED).build()));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content(json);
+
+		// Validação
+		mockMvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+				.andExpect(MockMvcResultMatchers.jsonPath("[0].status").value("LOANED"))
+				.andExpect(MockMvcResultMatchers.jsonPath("[0].loanId").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("[1].status").value("ALREADY_LOANED"));
+	}
+
+	@Test
+	@DisplayName("Deve devolver um lote de livros")
+	public void returnLoanBatchTest() throws Exception {
+		// Cenário
+		String json = new ObjectMapper().writeValueAsString(Arrays.asList("123"));
+
+		BDDMockito.given(loanService.returnAll(Arrays.asList("123"))).willReturn(Arrays.asList(
+				LoanBatchItemDto.builder().isbn("123").status(LoanBatchStatus.RETURNED).loanId(1L).build()));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(LOAN_API.concat("/returns"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content(json);
+
+		// Validação
+		mockMvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("[0].status").value("RETURNED"));
+	}
+
+	@Test
+	@DisplayName("Deve listar os empréstimos atrasados")
+	public void overdueLoansTest() throws Exception {
+		// Cenário
+		LocalDate loanDate = LocalDate.now().minusDays(20);
+		TrackedLoan loan = new TrackedLoan(1L, 2L, "123", "Fulano", null, loanDate);
+
+		BDDMockito.given(overdueLoanTracker.overdue()).willReturn(Arrays.asList(loan));
+		BDDMockito.given(overdueLoanTracker.dueDate(loan)).willReturn(loanDate.plusDays(14));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(LOAN_API.concat("/overdue"))
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mockMvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("[0].loanId").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("[0].customer").value("Fulano"))
+				.andExpect(MockMvcResultMatchers.jsonPath("[0].daysOverdue").value(6));
+	}
+
+	@Test
+	@DisplayName("Deve pesquisar empréstimos com filtros e cursor")
+	public void findLoansTest() throws Exception {
+		// Cenário
+		LoanSummaryDto loan = LoanSummaryDto.builder()
+				.id(7L)
+				.isbn("123")
+				.customer("Fulano")
+				.loanDate(LocalDate.of(2024, 3, 10))
+				.returned(false)
+				.build();
+
+		LoanFilterDto filter = LoanFilterDto.builder()
+				.isbn("123")
+				.customer("Ful")
+				.from(LocalDate.of(2024, 1, 1))
+				.returned(false)
+				.build();
+
+		BDDMockito.given(loanService.find(filter, 10L, 1))
+				.willReturn(new SliceImpl<LoanSummaryDto>(Arrays.asList(loan), PageRequest.of(0, 1), true));
+
+		// Execução
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.get(LOAN_API.concat("?isbn=123&customer=Ful&from=2024-01-01&returned=false&after=10&size=1"))
+				.accept(MediaType.APPLICATION_JSON);
+
+		// Validação
+		mockMvc.perform(request)
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("content", Matchers.hasSize(1)))
+				.andExpect(MockMvcResultMatchers.jsonPath("content[0].isbn").value("123"))
+				.andExpect(MockMvcResultMatchers.jsonPath("hasNext").value(true))
+				.andExpect(MockMvcResultMatchers.jsonPath("next").value("7"));
+	}
+
+	@Test
+	@DisplayName("Deve aceitar e responder empréstimos em Smile")
+	public void smileLoanTest() throws Exception {
+		// Cenário
+		ObjectMapper smile = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+		MediaType smileType = MediaType.parseMediaType("application/x-jackson-smile");
+
+		LoanDto loanDto = LoanDto.builder()
+				.isbn("123")
+				.customer("Fulano").build();
+		TrackedLoan loan = new TrackedLoan(1L, 1L, "123", "Fulano", null, LocalDate.now());
+		BDDMockito.given(loanService.checkout(loanDto)).willReturn(loan);
+
+		LoanSummaryDto summary = LoanSummaryDto.builder()
+				.id(1L)
+				.isbn("123")
+				.customer("Fulano")
+				.loanDate(LocalDate.of(2024, 3, 10))
+				.returned(false)
+				.build();
+		BDDMockito.given(loanService.find(Mockito.any(LoanFilterDto.class), Mockito.isNull(), Mockito.anyInt()))
+				.willReturn(new SliceImpl<LoanSummaryDto>(Arrays.asList(summary), PageRequest.of(0, 20), false));
+
+		// Execução
+		byte[] created = mockMvc.perform(MockMvcRequestBuilders.post(LOAN_API)
+						.contentType(smileType)
+						.accept(smileType)
+						.content(smile.writeValueAsBytes(loanDto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andExpect(MockMvcResultMatchers.content().contentType(smileType))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		byte[] found = mockMvc.perform(MockMvcRequestBuilders.get(LOAN_API.concat("?customer=Fulano"))
+						.accept(smileType))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+
+		// Validação
+		Assertions.assertThat(smile.readValue(created, Long.class)).isEqualTo(1L);
+		JsonNode page = smile.readTree(found);
+		Assertions.assertThat(page.get("content").get(0).get("loanDate").asText()).isEqualTo("2024-03-10");
+		Assertions.assertThat(page.get("hasNext").asBoolean()).isFalse();
+	}
+}
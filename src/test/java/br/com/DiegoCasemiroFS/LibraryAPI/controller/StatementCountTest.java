@@ -0,0 +1,202 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.ReturnedLoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.LoanService;
+
+/**
+ * Quantos comandos SQL cada endpoint manda ao banco, contados pelas
+ * estatísticas do Hibernate. Um número que cresce com o tamanho da resposta
+ * aqui é um N+1.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"library.loans.overdue-check-cron=-"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StatementCountTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	BookRepository bookRepository;
+
+	@Autowired
+	LoanRepository loanRepository;
+
+	@Autowired
+	LoanService loanService;
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	Statistics statistics;
+
+	List<Book> books;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		books = bookRepository.saveAll(Arrays.asList(
+				Book.builder().title("Titulo 1").author("Autor Contagem").isbn("CONTAGEM1").build(),
+				Book.builder().title("Titulo 2").author("Autor Contagem").isbn("CONTAGEM2").build(),
+				Book.builder().title("Titulo 3").author("Autor Contagem").isbn("CONTAGEM3").build()));
+	}
+
+	@AfterEach
+	public void cleanUp() {
+		// Pelos serviços, para que o índice de empréstimos e o cache de isbn
+		// não guardem livros que deixaram de existir.
+		loanService.returnAll(books.stream().map(Book::getIsbn).collect(Collectors.toList()));
+		loanRepository.deleteAll();
+		books.forEach(book -> bookService.getById(book.getId()).ifPresent(bookService::delete));
+	}
+
+	@Test
+	@DisplayName("Deve emprestar e devolver um livro com um comando SQL cada")
+	public void checkoutAndReturnTest() throws Exception {
+		// Execução
+		long statements = statistics.getPrepareStatementCount();
+		String loanId = mockMvc.perform(MockMvcRequestBuilders.post("/api/loans")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json(LoanDto.builder().isbn("CONTAGEM1").customer("Fulano").build())))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		long checkoutStatements = statistics.getPrepareStatementCount() - statements;
+
+		statements = statistics.getPrepareStatementCount();
+		mockMvc.perform(MockMvcRequestBuilders.patch("/api/loans/" + loanId)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json(ReturnedLoanDto.builder().returned(true).build())))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		long returnStatements = statistics.getPrepareStatementCount() - statements;
+
+		// Validação
+		// O insert, mais a busca do próximo bloco de loan_seq a cada 50 checkouts.
+		Assertions.assertThat(checkoutStatements).isBetween(1L, 2L);
+		Assertions.assertThat(returnStatements).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve pesquisar e devolver em lote empréstimos de vários livros sem uma consulta por livro")
+	public void searchAndReturnAllTest() throws Exception {
+		// Cenário
+		for (Book book : books) {
+			loanService.checkout(LoanDto.builder().isbn(book.getIsbn()).customer("Contagem").build());
+		}
+
+		// Execução
+		long statements = statistics.getPrepareStatementCount();
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/loans?customer=Contagem&returned=false"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("content.length()").value(3));
+		long searchStatements = statistics.getPrepareStatementCount() - statements;
+
+		statements = statistics.getPrepareStatementCount();
+		mockMvc.perform(MockMvcRequestBuilders.post("/api/loans/returns")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json(Arrays.asList("CONTAGEM1", "CONTAGEM2", "CONTAGEM3"))))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		long returnAllStatements = statistics.getPrepareStatementCount() - statements;
+
+		// Validação
+		Assertions.assertThat(searchStatements).isEqualTo(1);
+		// Os ids dos isbns já estão em cache desde o checkout: empréstimos
+		// abertos com o livro e update em lote.
+		Assertions.assertThat(returnAllStatements).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Deve obter um livro do cache e atualizá-lo com um comando SQL")
+	public void getAndUpdateBookTest() throws Exception {
+		// Cenário
+		Long id = books.get(0).getId();
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/books/" + id))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+
+		// Execução
+		long statements = statistics.getPrepareStatementCount();
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/books/" + id))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		long getStatements = statistics.getPrepareStatementCount() - statements;
+
+		statements = statistics.getPrepareStatementCount();
+		mockMvc.perform(MockMvcRequestBuilders.put("/api/books/" + id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json(BookDto.builder().title("Outro titulo").author("Autor").isbn("CONTAGEM1").build())))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("title").value("Outro titulo"));
+		long updateStatements = statistics.getPrepareStatementCount() - statements;
+
+		// Validação
+		Assertions.assertThat(getStatements).isZero();
+		Assertions.assertThat(updateStatements).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve carregar o livro do empréstimo só quando pedido pelo grafo")
+	public void lazyBookTest() {
+		// Cenário
+		Long loanId = loanService.checkout(LoanDto.builder().isbn("CONTAGEM2").customer("Fulano").build()).getLoanId();
+
+		// Execução
+		long statements = statistics.getPrepareStatementCount();
+		Loan lazy = loanRepository.findById(loanId).get();
+		long lazyStatements = statistics.getPrepareStatementCount() - statements;
+
+		statements = statistics.getPrepareStatementCount();
+		Loan withBook = loanService.getById(loanId).get();
+		long graphStatements = statistics.getPrepareStatementCount() - statements;
+
+		// Validação
+		Assertions.assertThat(Hibernate.isInitialized(lazy.getBook())).isFalse();
+		Assertions.assertThat(lazy.getBook().getId()).isEqualTo(books.get(1).getId());
+		Assertions.assertThat(lazyStatements).isEqualTo(1);
+		Assertions.assertThat(Hibernate.isInitialized(withBook.getBook())).isTrue();
+		Assertions.assertThat(withBook.getBook().getIsbn()).isEqualTo("CONTAGEM2");
+		Assertions.assertThat(graphStatements).isEqualTo(1);
+	}
+
+	private String json(Object value) throws Exception {
+		return objectMapper.writeValueAsString(value);
+	}
+}
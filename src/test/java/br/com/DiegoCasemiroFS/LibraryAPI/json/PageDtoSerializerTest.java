@@ -0,0 +1,72 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.json;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.PageDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+
+@JsonTest
+@ActiveProfiles("test")
+public class PageDtoSerializerTest {
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Deve escrever a página só com conteúdo, posição e totais")
+    public void serializePageTest() throws Exception {
+        // Cenário
+        PageImpl<Book> page = new PageImpl<>(Arrays.asList(
+                Book.builder().id(1L).title("Dom Casmurro").author("Machado de Assis").isbn("123").build(),
+                Book.builder().id(2L).title("Iracema").isbn("456").build()),
+                PageRequest.of(1, 2), 5);
+
+        // Execução
+        String json = objectMapper.writeValueAsString(PageDto.of(page, book -> BookDto.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .build()));
+
+        // Validação
+        Assertions.assertThat(json).isEqualTo("{\"content\":["
+                + "{\"id\":1,\"title\":\"Dom Casmurro\",\"author\":\"Machado de Assis\",\"isbn\":\"123\"},"
+                + "{\"id\":2,\"title\":\"Iracema\",\"author\":null,\"isbn\":\"456\"}],"
+                + "\"page\":1,\"size\":2,\"totalElements\":5,\"totalPages\":3}");
+    }
+
+    @Test
+    @DisplayName("Deve escrever o resumo do empréstimo como o serializador padrão escrevia")
+    public void serializeLoanSummaryTest() throws Exception {
+        // Cenário
+        LoanSummaryDto loan = LoanSummaryDto.builder()
+                .id(7L)
+                .isbn("123")
+                .customer("Fulano")
+                .loanDate(LocalDate.of(2024, 3, 10))
+                .returned(false)
+                .build();
+
+        // Execução
+        String json = objectMapper.writeValueAsString(loan);
+
+        // Validação
+        Assertions.assertThat(json).isEqualTo(
+                "{\"id\":7,\"isbn\":\"123\",\"customer\":\"Fulano\",\"loanDate\":\"2024-03-10\",\"returned\":false}");
+    }
+}
@@ -0,0 +1,211 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.load.LoadGenerator.LoadReport;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Carga sobre a pilha inteira (Tomcat, controllers, JPA e H2) numa porta
+ * aleatória. Fica fora do {@code mvn test} e roda com {@code mvn -Pload test}.
+ * <p>
+ * Duração, threads e orçamentos podem ser ajustados por propriedade de sistema,
+ * por exemplo {@code -Dload.duration=60s -Dload.budget.search.p99=100ms}. Cada
+ * cenário grava o histograma em {@code target/load-reports}.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class LibraryLoadTest {
+
+    private static final int CATALOG_SIZE = 5000;
+    private static final int HOT_BOOKS = 50;
+    private static final int RETURN_BATCH_SIZE = 20;
+    private static final Set<Integer> OK = Set.of(200);
+    private static final Set<Integer> CHECKOUT = Set.of(201, 400);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @Value("${load.threads:32}")
+    int threads;
+
+    @Value("${load.duration:10s}")
+    Duration duration;
+
+    @Value("${load.budget.search.p99:250ms}")
+    Duration searchP99;
+
+    @Value("${load.budget.search.min-throughput:200}")
+    double searchThroughput;
+
+    @Value("${load.budget.checkout.p99:500ms}")
+    Duration checkoutP99;
+
+    @Value("${load.budget.checkout.min-throughput:100}")
+    double checkoutThroughput;
+
+    @Value("${load.budget.returns.p99:500ms}")
+    Duration returnsP99;
+
+    @Value("${load.budget.returns.min-throughput:50}")
+    double returnsThroughput;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<String> isbns = new ArrayList<>();
+
+    @BeforeAll
+    public void seedCatalog() throws Exception {
+        StringBuilder csv = new StringBuilder("title,author,isbn\n");
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            String isbn = String.format("load-%06d", i);
+            isbns.add(isbn);
+            csv.append("Titulo ").append(i).append(" volume ").append(i % 7)
+                    .append(",Autor ").append(i % 200)
+                    .append(',').append(isbn).append('\n');
+        }
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/books/import"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Deve atender buscas concorrentes dentro do orçamento de latência e vazão")
+    public void searchHeavyTest() throws Exception {
+        LoadReport report = generator().run("search-heavy", OK, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int choice = random.nextInt(10);
+            String path;
+            if (choice < 6) {
+                path = "/api/books?author=Autor%20" + random.nextInt(200) + "&page=0&size=20";
+            } else if (choice < 9) {
+                path = "/api/books?title=volume%20" + random.nextInt(7) + "&page=" + random.nextInt(10) + "&size=20";
+            } else {
+                path = "/api/books?after=&sort=title&size=50";
+            }
+            return get(path);
+        });
+
+        assertWithinBudget(report, searchP99, searchThroughput);
+    }
+
+    @Test
+    @DisplayName("Deve emprestar no máximo uma vez cada livro sob uma rajada de empréstimos concorrentes")
+    public void checkoutStormTest() throws Exception {
+        List<String> hotBooks = isbns.subList(0, HOT_BOOKS);
+        try {
+            LoadReport report = generator().run("checkout-storm", CHECKOUT, () -> {
+                String isbn = hotBooks.get(ThreadLocalRandom.current().nextInt(HOT_BOOKS));
+                int status = post("/api/loans", LoanDto.builder().isbn(isbn).customer("Carga").build());
+                if (status == 201 && ThreadLocalRandom.current().nextBoolean()) {
+                    post("/api/loans/returns", List.of(isbn));
+                }
+                return status;
+            });
+
+            assertWithinBudget(report, checkoutP99, checkoutThroughput);
+            Assertions.assertThat(loanRepository.search(LoanFilterDto.builder().returned(false).build(), null, CATALOG_SIZE)
+                    .stream()
+                    .collect(Collectors.groupingBy(LoanSummaryDto::getIsbn, Collectors.counting()))
+                    .values()).allMatch(open -> open == 1);
+        } finally {
+            post("/api/loans/returns", hotBooks);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve devolver lotes concorrentes dentro do orçamento de latência e vazão")
+    public void returnBurstTest() throws Exception {
+        List<String> burst = isbns.subList(HOT_BOOKS, CATALOG_SIZE);
+        for (int from = 0; from < burst.size(); from += 500) {
+            List<LoanDto> loans = burst.subList(from, Math.min(from + 500, burst.size())).stream()
+                    .map(isbn -> LoanDto.builder().isbn(isbn).customer("Carga").build())
+                    .collect(Collectors.toList());
+            Assertions.assertThat(post("/api/loans/batch", loans)).isEqualTo(200);
+        }
+
+        ConcurrentLinkedQueue<List<String>> batches = new ConcurrentLinkedQueue<>();
+        for (int from = 0; from < burst.size(); from += RETURN_BATCH_SIZE) {
+            batches.add(burst.subList(from, Math.min(from + RETURN_BATCH_SIZE, burst.size())));
+        }
+
+        LoadReport report = generator().run("return-burst", OK, () -> {
+            List<String> batch = batches.poll();
+            return batch == null ? LoadGenerator.DONE : post("/api/loans/returns", batch);
+        });
+
+        assertWithinBudget(report, returnsP99, returnsThroughput);
+        Assertions.assertThat(batches).isEmpty();
+    }
+
+    private void assertWithinBudget(LoadReport report, Duration p99, double minThroughput) {
+        log.info("{}", report);
+        Assertions.assertThat(report.errors()).as("erros em %s", report).isZero();
+        Assertions.assertThat(report.percentile(99)).as("p99 em %s", report).isLessThanOrEqualTo(p99);
+        Assertions.assertThat(report.throughput()).as("vazão em %s", report).isGreaterThanOrEqualTo(minThroughput);
+    }
+
+    private LoadGenerator generator() {
+        return new LoadGenerator(threads, duration);
+    }
+
+    private int get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                .header("Accept", "application/json")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int post(String path, Object body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
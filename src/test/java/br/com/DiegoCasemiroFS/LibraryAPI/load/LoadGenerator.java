@@ -0,0 +1,151 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Dispara uma operação HTTP em várias threads durante um tempo fixo (ou até a
+ * operação avisar que acabou) e registra a latência de cada chamada num
+ * histograma HdrHistogram, em microssegundos.
+ */
+class LoadGenerator {
+
+    /** Status devolvido pela operação quando não há mais trabalho. */
+    static final int DONE = -1;
+
+    private static final Path REPORTS = Paths.get("target", "load-reports");
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final int threads;
+    private final Duration duration;
+
+    LoadGenerator(int threads, Duration duration) {
+        this.threads = threads;
+        this.duration = duration;
+    }
+
+    /**
+     * @param expected status considerados resposta válida; os demais, e as
+     *                 exceções, contam como erro
+     */
+    LoadReport run(String name, Set<Integer> expected, Operation operation) throws Exception {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        long begin = System.nanoTime();
+        long deadline = begin + duration.toNanos();
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        int status;
+                        try {
+                            status = operation.call();
+                        } catch (Exception e) {
+                            status = 0;
+                        }
+                        if (status == DONE) {
+                            break;
+                        }
+                        recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent)));
+                        if (!expected.contains(status)) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(duration.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LoadReport report = new LoadReport(name, recorder.getIntervalHistogram(), errors.get(),
+                Duration.ofNanos(System.nanoTime() - begin));
+        report.write(REPORTS);
+        return report;
+    }
+
+    interface Operation {
+
+        /** Faz uma chamada e devolve o status HTTP, ou {@link #DONE}. */
+        int call() throws Exception;
+    }
+
+    static class LoadReport {
+
+        private final String name;
+        private final Histogram histogram;
+        private final long errors;
+        private final Duration elapsed;
+
+        LoadReport(String name, Histogram histogram, long errors, Duration elapsed) {
+            this.name = name;
+            this.histogram = histogram;
+            this.errors = errors;
+            this.elapsed = elapsed;
+        }
+
+        long requests() {
+            return histogram.getTotalCount();
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        Duration percentile(double percentile) {
+            return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(histogram.getValueAtPercentile(percentile)));
+        }
+
+        double throughput() {
+            return requests() * 1_000_000_000.0 / Math.max(1, elapsed.toNanos());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d requisições, %d erros, %.1f req/s, p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                    name, requests(), errors, throughput(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+
+        /**
+         * Grava a distribuição no formato .hgrm (em ms), que pode ser aberto
+         * no HdrHistogram Plotter para comparar execuções.
+         */
+        private void write(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")), true, "UTF-8")) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
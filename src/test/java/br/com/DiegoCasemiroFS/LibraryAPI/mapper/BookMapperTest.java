@@ -0,0 +1,32 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.mapper;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+
+public class BookMapperTest {
+
+    BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+
+    @Test
+    @DisplayName("Deve converter um livro em dto e de volta")
+    public void mapBookTest() {
+        Book book = Book.builder().id(1L).title("Titulo").author("Autor").isbn("123456789").build();
+
+        BookDto dto = bookMapper.toDto(book);
+
+        Assertions.assertThat(dto).isEqualTo(new BookDto(1L, "Titulo", "Autor", "123456789"));
+        Assertions.assertThat(bookMapper.toEntity(dto)).isEqualTo(book);
+    }
+
+    @Test
+    @DisplayName("Deve devolver nulo ao converter um livro nulo")
+    public void mapNullBookTest() {
+        Assertions.assertThat(bookMapper.toDto(null)).isNull();
+        Assertions.assertThat(bookMapper.toEntity(null)).isNull();
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.mapper;
+
+import java.time.LocalDate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+
+public class LoanMapperTest {
+
+    LoanMapper loanMapper = Mappers.getMapper(LoanMapper.class);
+
+    @Test
+    @DisplayName("Deve converter um empréstimo em dto usando o isbn do livro")
+    public void mapLoanToDtoTest() {
+        Loan loan = Loan.builder()
+                .id(1L)
+                .customer("Fulano")
+                .book(Book.builder().id(1L).isbn("123456789").build())
+                .loanDate(LocalDate.now())
+                .build();
+
+        LoanDto dto = loanMapper.toDto(loan);
+
+        Assertions.assertThat(dto.getIsbn()).isEqualTo("123456789");
+        Assertions.assertThat(dto.getCustomer()).isEqualTo("Fulano");
+    }
+
+    @Test
+    @DisplayName("Deve converter um dto em empréstimo sem livro nem data")
+    public void mapDtoToLoanTest() {
+        Loan loan = loanMapper.toEntity(LoanDto.builder().isbn("123456789").customer("Fulano").build());
+
+        Assertions.assertThat(loan.getCustomer()).isEqualTo("Fulano");
+        Assertions.assertThat(loan.getBook()).isNull();
+        Assertions.assertThat(loan.getLoanDate()).isNull();
+    }
+}
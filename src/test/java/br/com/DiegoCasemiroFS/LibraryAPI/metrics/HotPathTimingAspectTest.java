@@ -0,0 +1,74 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class HotPathTimingAspectTest {
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Deve medir as chamadas ao serviço e às consultas do repositório")
+    public void timesServiceAndRepositoryTest() {
+        // Cenário
+        long serviceCalls = count(HotPathTimingAspect.SERVICE_TIMER, "getById", "none");
+        long repositoryCalls = count(HotPathTimingAspect.REPOSITORY_TIMER, "findById", "none");
+
+        // Execução
+        bookService.getById(Long.MAX_VALUE);
+
+        // Validação
+        Assertions.assertThat(count(HotPathTimingAspect.SERVICE_TIMER, "getById", "none"))
+                .isEqualTo(serviceCalls + 1);
+        Assertions.assertThat(meterRegistry.find(HotPathTimingAspect.REPOSITORY_TIMER)
+                .tag("class", "BookRepository")
+                .tag("method", "findById")
+                .timer()).isNotNull();
+        Assertions.assertThat(count(HotPathTimingAspect.REPOSITORY_TIMER, "findById", "none"))
+                .isEqualTo(repositoryCalls + 1);
+    }
+
+    @Test
+    @DisplayName("Deve separar as chamadas recusadas pela exceção e contar a recusa")
+    public void timesRejectionsTest() {
+        // Cenário
+        Book book = bookService.save(Book.builder().title("Titulo").author("Autor").isbn("metricas-1").build());
+        double rejections = meterRegistry.counter("library.rejections", "reason", "duplicate_isbn").count();
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(
+                Book.builder().title("Outro").author("Autor").isbn(book.getIsbn()).build()));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class);
+        Assertions.assertThat(count(HotPathTimingAspect.SERVICE_TIMER, "save", "BusinessException")).isPositive();
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "duplicate_isbn").count())
+                .isEqualTo(rejections + 1);
+
+        bookService.delete(book);
+    }
+
+    private long count(String name, String method, String exception) {
+        Timer timer = meterRegistry.find(name)
+                .tag("method", method)
+                .tag("exception", exception)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
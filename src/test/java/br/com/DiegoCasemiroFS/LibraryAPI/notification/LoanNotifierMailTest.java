@@ -0,0 +1,66 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.notification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.mail.internet.MimeMessage;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.LoanOverdueEvent;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
+
+@SpringBootTest(properties = {
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "library.mail.initial-backoff=10ms"
+})
+@ActiveProfiles("test")
+public class LoanNotifierMailTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    LoanNotifier loanNotifier;
+
+    @Test
+    @DisplayName("Deve enviar a confirmação e o aviso de atraso pelo SMTP")
+    public void sendLoanMailsTest() throws Exception {
+        // Cenário
+        Book book = Book.builder().id(1L).title("Dom Casmurro").isbn("123").build();
+        Loan loan = Loan.builder()
+                .id(1L)
+                .book(book)
+                .customer("Fulano")
+                .customerEmail("fulano@biblioteca")
+                .loanDate(LocalDate.of(2024, 1, 10))
+                .build();
+
+        // Execução
+        loanNotifier.loanConfirmed(TrackedLoan.of(loan));
+        loanNotifier.loanOverdue(new LoanOverdueEvent(TrackedLoan.of(loan), LocalDate.of(2024, 1, 24)));
+
+        // Validação
+        Assertions.assertThat(greenMail.waitForIncomingEmail(10_000, 2)).isTrue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        List<String> subjects = new ArrayList<>();
+        for (MimeMessage message : received) {
+            subjects.add(message.getSubject());
+        }
+        Assertions.assertThat(subjects).containsExactlyInAnyOrder("Empréstimo confirmado: isbn 123", "Empréstimo em atraso: isbn 123");
+        Assertions.assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("fulano@biblioteca");
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.notification;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MailDispatcherTest {
+
+    private JavaMailSender mailSender;
+    private SimpleMeterRegistry meterRegistry;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        mailSender = Mockito.mock(JavaMailSender.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = createDispatcher(mailSender, 100, 3);
+        dispatcher.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    @DisplayName("Deve reenviar apenas as mensagens que falharam no lote")
+    public void retryFailedMessagesTest() throws Exception {
+        // Cenário
+        SimpleMailMessage ok = message("ok@biblioteca");
+        SimpleMailMessage failing = message("falha@biblioteca");
+        AtomicBoolean firstAttempt = new AtomicBoolean(true);
+        Mockito.doAnswer(invocation -> {
+            List<Object> batch = Arrays.asList(invocation.getArguments());
+            if (batch.contains(failing) && firstAttempt.getAndSet(false)) {
+                throw new MailSendException(Map.of(failing, new RuntimeException("421")));
+            }
+            return null;
+        }).when(mailSender).send(Mockito.<SimpleMailMessage[]>any());
+
+        // Execução
+        dispatcher.enqueue(ok);
+        dispatcher.enqueue(failing);
+        await(() -> meterRegistry.counter("mail.sent").count() == 2);
+
+        // Validação
+        Assertions.assertThat(meterRegistry.counter("mail.retried").count()).isEqualTo(1);
+        Assertions.assertThat(dispatcher.deadLetters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve mover para cartas mortas depois da última tentativa")
+    public void deadLetterAfterMaxAttemptsTest() throws Exception {
+        // Cenário
+        Mockito.doThrow(new MailSendException("SMTP fora do ar"))
+                .when(mailSender).send(Mockito.<SimpleMailMessage[]>any());
+
+        // Execução
+        dispatcher.enqueue(message("fulano@biblioteca"));
+        await(() -> !dispatcher.deadLetters().isEmpty());
+
+        // Validação
+        Assertions.assertThat(dispatcher.deadLetters()).hasSize(1);
+        Assertions.assertThat(dispatcher.deadLetters().get(0).getAttempts()).isEqualTo(3);
+        Assertions.assertThat(meterRegistry.counter("mail.failed").count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve recusar sem bloquear quando o envio está desligado")
+    public void disabledWithoutMailSenderTest() {
+        MailDispatcher disabled = createDispatcher(null, 1, 3);
+        disabled.start();
+
+        Assertions.assertThat(disabled.isEnabled()).isFalse();
+        Assertions.assertThat(disabled.enqueue(message("fulano@biblioteca"))).isFalse();
+    }
+
+    private MailDispatcher createDispatcher(JavaMailSender sender, int capacity, int maxAttempts) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        if (sender != null) {
+            beanFactory.addBean("mailSender", sender);
+        }
+        return new MailDispatcher(beanFactory.getBeanProvider(JavaMailSender.class), meterRegistry,
+                capacity, 1, 10, maxAttempts, Duration.ofMillis(10));
+    }
+
+    private SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("Teste");
+        message.setText("Teste");
+        return message;
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertThat(System.nanoTime()).as("tempo de espera esgotado").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
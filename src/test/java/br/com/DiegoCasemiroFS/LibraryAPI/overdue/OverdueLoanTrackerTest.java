@@ -0,0 +1,86 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.overdue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OverdueLoanTrackerTest {
+
+    private LoanRepository loanRepository;
+    private List<Object> events;
+    private OverdueLoanTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        loanRepository = Mockito.mock(LoanRepository.class);
+        events = new ArrayList<>();
+        tracker = new OverdueLoanTracker(loanRepository, events::add, new SimpleMeterRegistry(), 14);
+    }
+
+    @Test
+    @DisplayName("Deve notificar o atraso no dia seguinte ao vencimento")
+    public void overdueAfterDueDateTest() {
+        // Cenário
+        LocalDate today = LocalDate.now();
+        TrackedLoan loan = new TrackedLoan(1L, 10L, "123", "Fulano", null, today);
+
+        // Execução
+        tracker.loaned(loan);
+        tracker.advanceTo(today.plusDays(14));
+        List<TrackedLoan> onDueDate = tracker.overdue();
+        tracker.advanceTo(today.plusDays(15));
+
+        // Validação
+        Assertions.assertThat(onDueDate).isEmpty();
+        Assertions.assertThat(tracker.overdue()).extracting(TrackedLoan::getLoanId).containsExactly(1L);
+        Assertions.assertThat(events).hasSize(1);
+        LoanOverdueEvent event = (LoanOverdueEvent) events.get(0);
+        Assertions.assertThat(event.getDueDate()).isEqualTo(today.plusDays(14));
+    }
+
+    @Test
+    @DisplayName("Não deve notificar empréstimos devolvidos antes do vencimento")
+    public void returnedBeforeDueDateTest() {
+        LocalDate today = LocalDate.now();
+        tracker.loaned(new TrackedLoan(1L, 10L, "123", "Fulano", null, today));
+
+        tracker.returned(1L);
+        tracker.advanceTo(today.plusDays(100));
+
+        Assertions.assertThat(tracker.overdue()).isEmpty();
+        Assertions.assertThat(events).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve carregar os empréstimos abertos na subida, sem notificar os já atrasados")
+    public void loadOpenLoansTest() {
+        // Cenário
+        LocalDate today = LocalDate.now();
+        Mockito.when(loanRepository.streamOpenTrackedLoans()).thenReturn(Stream.of(
+                new TrackedLoan(1L, 10L, "123", "Fulano", null, today.minusDays(30)),
+                new TrackedLoan(2L, 20L, "456", "Beltrano", null, today.minusDays(14)),
+                new TrackedLoan(3L, 30L, "789", "Ciclano", null, today.minusDays(1))));
+        tracker.returned(3L);
+
+        // Execução
+        tracker.load();
+        List<TrackedLoan> overdueAfterLoad = tracker.overdue();
+        tracker.advanceTo(today.plusDays(1));
+
+        // Validação
+        Assertions.assertThat(tracker.isReady()).isTrue();
+        Assertions.assertThat(overdueAfterLoad).extracting(TrackedLoan::getLoanId).containsExactly(1L);
+        Assertions.assertThat(tracker.overdue()).extracting(TrackedLoan::getLoanId).containsExactly(1L, 2L);
+        Assertions.assertThat(events).hasSize(1);
+    }
+}
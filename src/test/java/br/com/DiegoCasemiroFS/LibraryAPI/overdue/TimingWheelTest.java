@@ -0,0 +1,62 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.overdue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+    @Test
+    @DisplayName("Deve vencer cada timer exatamente no seu prazo, em qualquer nível da roda")
+    public void expiresOnDeadlineTest() {
+        // Cenário
+        Random random = new Random(42);
+        long start = 19_000 + random.nextInt(100_000);
+        TimingWheel<String> wheel = new TimingWheel<>(start);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long key = 0; key < 5_000; key++) {
+            long deadline = start + 1 + (random.nextBoolean() ? random.nextInt(100) : random.nextInt(500_000));
+            wheel.schedule(key, "loan-" + key, deadline);
+            deadlines.put(key, deadline);
+        }
+        for (long key = 0; key < 5_000; key += 7) {
+            wheel.cancel(key);
+            deadlines.remove(key);
+        }
+
+        // Execução
+        List<Long> lateOrEarly = new ArrayList<>();
+        Map<Long, Long> expired = new HashMap<>();
+        long now = start;
+        while (now < start + 600_000) {
+            now = Math.min(start + 600_000, now + 1 + random.nextInt(5_000));
+            wheel.advanceTo(now, timer -> {
+                if (timer.deadline() != wheel.now()) {
+                    lateOrEarly.add(timer.key());
+                }
+                expired.put(timer.key(), timer.deadline());
+            });
+        }
+
+        // Validação
+        Assertions.assertThat(lateOrEarly).isEmpty();
+        Assertions.assertThat(expired).isEqualTo(deadlines);
+        Assertions.assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Não deve agendar um timer cujo prazo já passou")
+    public void pastDeadlineTest() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+
+        Assertions.assertThat(wheel.schedule(1L, "vencido", 100)).isFalse();
+        Assertions.assertThat(wheel.schedule(2L, "no prazo", 101)).isTrue();
+        Assertions.assertThat(wheel.size()).isEqualTo(1);
+    }
+}
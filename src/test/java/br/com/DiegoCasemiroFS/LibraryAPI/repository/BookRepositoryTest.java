@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
@@ -86,6 +88,46 @@ public class BookRepositoryTest {
         Assertions.assertThat(deletedBook).isNull();
     }
 
+    @Test
+    @DisplayName("Deve paginar livros por título a partir do último livro entregue")
+    public void findNextByTitleTest() {
+        Book first = testEntityManager.persist(Book.builder().title("A").author("Autor").isbn("1").build());
+        Book second = testEntityManager.persist(Book.builder().title("B").author("Autor").isbn("2").build());
+        Book third = testEntityManager.persist(Book.builder().title("B").author("Autor").isbn("3").build());
+
+        Slice<Book> page = bookRepository.findNextByTitle(first.getTitle(), first.getId(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(page.getContent()).containsExactly(second);
+        Assertions.assertThat(page.hasNext()).isTrue();
+
+        page = bookRepository.findNextByTitle(second.getTitle(), second.getId(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(page.getContent()).containsExactly(third);
+        Assertions.assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve alterar só os campos informados sem carregar o livro e ignorar a repetição do pedido")
+    public void patchBookTest() {
+        // Cenário
+        Book book = testEntityManager.persist(createNewBook());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Execução
+        Optional<Book> patched = bookRepository.patch(book.getId(), "Novo titulo", null);
+        Optional<Book> repeated = bookRepository.patch(book.getId(), "Novo titulo", null);
+        Optional<Book> missing = bookRepository.patch(-1L, "Novo titulo", null);
+
+        // Validação
+        Assertions.assertThat(patched).get().extracting(Book::getTitle).isEqualTo("Novo titulo");
+        Assertions.assertThat(patched.get().getAuthor()).isEqualTo("Autor");
+        Assertions.assertThat(patched.get().getVersion()).isEqualTo(book.getVersion() + 1);
+        Assertions.assertThat(testEntityManager.find(Book.class, book.getId()).getTitle()).isEqualTo("Novo titulo");
+        Assertions.assertThat(repeated).isEmpty();
+        Assertions.assertThat(missing).isEmpty();
+    }
+
     public static Book createNewBook() {
         return Book.builder()
                 .title("Titulo")
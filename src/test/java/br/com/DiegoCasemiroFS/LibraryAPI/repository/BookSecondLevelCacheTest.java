@@ -0,0 +1,192 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookImportResultDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookExportService;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookImportService;
+import br.com.DiegoCasemiroFS.LibraryAPI.service.BookService;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class BookSecondLevelCacheTest {
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookImportService bookImportService;
+
+    @Autowired
+    BookExportService bookExportService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Deve obter pelo cache de segundo nível um livro já lido por id")
+    public void findByIdFromCacheTest() {
+        // Cenário
+        Book book = bookRepository.save(createBook("cache-id-1", "Autor Cache Id"));
+        bookRepository.findById(book.getId());
+
+        // Execução
+        long statements = preparedStatements();
+        Book found = bookRepository.findById(book.getId()).get();
+
+        // Validação
+        Assertions.assertThat(preparedStatements()).isEqualTo(statements);
+        Assertions.assertThat(found.getIsbn()).isEqualTo("cache-id-1");
+
+        bookRepository.delete(found);
+    }
+
+    @Test
+    @DisplayName("Deve obter pelo cache de segundo nível um livro já lido por isbn")
+    public void findByIsbnFromCacheTest() {
+        // Cenário
+        Book book = bookRepository.save(createBook("cache-isbn-1", "Autor Cache Isbn"));
+        bookRepository.findByNaturalIsbn(book.getIsbn());
+
+        // Execução
+        long statements = preparedStatements();
+        Book found = bookRepository.findByNaturalIsbn(book.getIsbn()).get();
+
+        // Validação
+        Assertions.assertThat(preparedStatements()).isEqualTo(statements);
+        Assertions.assertThat(found.getId()).isEqualTo(book.getId());
+
+        bookRepository.delete(found);
+    }
+
+    @Test
+    @DisplayName("Deve ler os dados novos do livro depois de uma atualização")
+    public void updateRefreshesCacheTest() {
+        // Cenário
+        Book book = bookRepository.save(createBook("cache-update-1", "Autor Cache Update"));
+        bookRepository.findById(book.getId());
+        bookRepository.findByNaturalIsbn(book.getIsbn());
+
+        // Execução
+        bookService.patch(book.getId(), Book.builder().title("Titulo novo").build());
+
+        // Validação
+        Assertions.assertThat(bookRepository.findById(book.getId()).get().getTitle()).isEqualTo("Titulo novo");
+        Assertions.assertThat(bookRepository.findByNaturalIsbn(book.getIsbn()).get().getTitle()).isEqualTo("Titulo novo");
+
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @DisplayName("Não deve obter do cache um livro já deletado")
+    public void deleteEvictsCacheTest() {
+        // Cenário
+        Book book = bookRepository.save(createBook("cache-delete-1", "Autor Cache Delete"));
+        bookRepository.findById(book.getId());
+        bookRepository.findByNaturalIsbn(book.getIsbn());
+
+        // Execução
+        bookService.delete(bookRepository.findById(book.getId()).get());
+
+        // Validação
+        Assertions.assertThat(bookRepository.findById(book.getId())).isEmpty();
+        Assertions.assertThat(bookRepository.findByNaturalIsbn(book.getIsbn())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve repetir a busca por exemplo pelo cache de consultas até a próxima escrita em livros")
+    public void findByExampleFromQueryCacheTest() {
+        // Cenário
+        Book book = bookRepository.save(createBook("cache-query-1", "Autor Cache Consulta"));
+        Example<Book> example = Example.of(Book.builder().author("Autor Cache Consulta").build());
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("title"));
+        bookRepository.findAll(example, pageRequest);
+
+        // Execução
+        long statements = preparedStatements();
+        Page<Book> cached = bookRepository.findAll(example, pageRequest);
+        long cachedStatements = preparedStatements() - statements;
+
+        bookService.patch(book.getId(), Book.builder().title("Titulo consulta").build());
+        Page<Book> refreshed = bookRepository.findAll(example, pageRequest);
+
+        // Validação
+        Assertions.assertThat(cachedStatements).isZero();
+        Assertions.assertThat(cached.getContent()).extracting(Book::getId).containsExactly(book.getId());
+        Assertions.assertThat(refreshed.getContent()).extracting(Book::getTitle).containsExactly("Titulo consulta");
+
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @DisplayName("Não deve povoar o cache de segundo nível ao exportar o catálogo")
+    public void exportIgnoresCacheTest() throws Exception {
+        // Cenário
+        Book book = bookRepository.save(createBook("cache-export-1", "Autor Cache Export"));
+        entityManagerFactory.getCache().evict(Book.class);
+
+        // Execução
+        bookExportService.exportBooks(new ByteArrayOutputStream(), CatalogFormat.NDJSON);
+
+        // Validação
+        Assertions.assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isFalse();
+
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @DisplayName("Não deve povoar o cache de segundo nível ao importar livros")
+    public void importIgnoresCacheTest() {
+        // Cenário
+        String csv = "title,author,isbn\nTitulo cache,Autor Cache Import,cache-import-1\n";
+        long puts = statistics.getSecondLevelCachePutCount();
+
+        // Execução
+        BookImportResultDto result = bookImportService.importBooks(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CatalogFormat.CSV);
+
+        // Validação
+        Assertions.assertThat(result.getImported()).isEqualTo(1);
+        Assertions.assertThat(statistics.getSecondLevelCachePutCount()).isEqualTo(puts);
+
+        bookRepository.delete(bookRepository.findByIsbn("cache-import-1").get());
+    }
+
+    private long preparedStatements() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Book createBook(String isbn, String author) {
+        return Book.builder().title("Titulo cache").author(author).isbn(isbn).build();
+    }
+}
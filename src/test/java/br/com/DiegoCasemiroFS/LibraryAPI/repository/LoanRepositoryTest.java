@@ -1,21 +1,30 @@
 package br.com.DiegoCasemiroFS.LibraryAPI.repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanFilterDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanSummaryDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @ActiveProfiles("test")
 @ExtendWith(SpringExtension.class)
 public class LoanRepositoryTest {
@@ -47,5 +56,135 @@ public class LoanRepositoryTest {
         Assertions.assertThat(exists).isTrue();
 
     }
-}
 
+    @Test
+    @DisplayName("Deve pesquisar empréstimos por filtros, do mais novo para o mais antigo")
+    public void searchLoansTest() {
+        // Cenário
+        Book book = testEntityManager.persist(Book.builder().title("A").author("Autor").isbn("111").build());
+        Book other = testEntityManager.persist(Book.builder().title("B").author("Autor").isbn("222").build());
+
+        Loan old = persistLoan(book, "Fulano", LocalDate.of(2024, 1, 10), true);
+        Loan recent = persistLoan(book, "Fulana", LocalDate.of(2024, 3, 10), false);
+        persistLoan(other, "Beltrano", LocalDate.of(2024, 3, 11), false);
+
+        // Execução
+        Slice<LoanSummaryDto> byIsbn = loanRepository.search(LoanFilterDto.builder().isbn("111").build(), null, 10);
+        Slice<LoanSummaryDto> byCustomer = loanRepository.search(LoanFilterDto.builder().customer("Ful").build(), null, 10);
+        Slice<LoanSummaryDto> byPeriodAndStatus = loanRepository.search(LoanFilterDto.builder()
+                .from(LocalDate.of(2024, 1, 1))
+                .to(LocalDate.of(2024, 3, 10))
+                .returned(false)
+                .build(), null, 10);
+
+        // Validação
+        Assertions.assertThat(byIsbn.getContent()).extracting(LoanSummaryDto::getId)
+                .containsExactly(recent.getId(), old.getId());
+        Assertions.assertThat(byIsbn.getContent().get(0).getIsbn()).isEqualTo("111");
+        Assertions.assertThat(byCustomer.getContent()).extracting(LoanSummaryDto::getCustomer)
+                .containsExactly("Fulana", "Fulano");
+        Assertions.assertThat(byPeriodAndStatus.getContent()).extracting(LoanSummaryDto::getId)
+                .containsExactly(recent.getId());
+    }
+
+    @Test
+    @DisplayName("Deve paginar a pesquisa de empréstimos por cursor")
+    public void searchLoansKeysetTest() {
+        // Cenário
+        Book book = testEntityManager.persist(Book.builder().title("A").author("Autor").isbn("333").build());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(persistLoan(book, "Cliente", LocalDate.of(2024, 1, 1 + i), true).getId());
+        }
+
+        // Execução
+        Slice<LoanSummaryDto> first = loanRepository.search(LoanFilterDto.builder().isbn("333").build(), null, 2);
+        Long last = first.getContent().get(1).getId();
+        Slice<LoanSummaryDto> second = loanRepository.search(LoanFilterDto.builder().isbn("333").build(), last, 2);
+        Slice<LoanSummaryDto> third = loanRepository.search(LoanFilterDto.builder().isbn("333").build(),
+                second.getContent().get(1).getId(), 2);
+
+        // Validação
+        Assertions.assertThat(first.hasNext()).isTrue();
+        Assertions.assertThat(first.getContent()).extracting(LoanSummaryDto::getId).containsExactly(ids.get(4), ids.get(3));
+        Assertions.assertThat(second.getContent()).extracting(LoanSummaryDto::getId).containsExactly(ids.get(2), ids.get(1));
+        Assertions.assertThat(third.hasNext()).isFalse();
+        Assertions.assertThat(third.getContent()).extracting(LoanSummaryDto::getId).containsExactly(ids.get(0));
+    }
+
+    @Test
+    @DisplayName("Deve emprestar pelo isbn num único comando só quando o livro existe e está livre")
+    public void checkoutTest() {
+        // Cenário
+        Book book = testEntityManager.persist(Book.builder().title("A").author("Autor").isbn("444").build());
+        testEntityManager.persist(Book.builder().title("B").author("Autor").isbn("445").build());
+        testEntityManager.flush();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        // Execução
+        long statements = statistics.getPrepareStatementCount();
+        Optional<TrackedLoan> loan = loanRepository.checkout("444", "Fulano", "fulano@email.com", LocalDate.now());
+        long checkoutStatements = statistics.getPrepareStatementCount() - statements;
+        Optional<TrackedLoan> again = loanRepository.checkout("444", "Beltrano", null, LocalDate.now());
+        Optional<TrackedLoan> missing = loanRepository.checkout("555", "Fulano", null, LocalDate.now());
+        Optional<TrackedLoan> next = loanRepository.checkout("445", "Fulano", null, LocalDate.now());
+
+        // Validação
+        // O insert, mais a busca do próximo bloco de loan_seq quando o atual acaba.
+        Assertions.assertThat(checkoutStatements).isBetween(1L, 2L);
+        // Os ids vêm do otimizador pooled: só os checkouts recusados deixam buraco.
+        Assertions.assertThat(next.get().getLoanId()).isEqualTo(loan.get().getLoanId() + 3);
+        Assertions.assertThat(loan).get().extracting(TrackedLoan::getBookId).isEqualTo(book.getId());
+        Assertions.assertThat(testEntityManager.find(Loan.class, loan.get().getLoanId()).getCustomer()).isEqualTo("Fulano");
+        Assertions.assertThat(again).isEmpty();
+        Assertions.assertThat(missing).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve recusar no banco um segundo empréstimo aberto do mesmo livro")
+    public void oneOpenLoanPerBookTest() {
+        // Cenário
+        Book book = testEntityManager.persist(Book.builder().title("A").author("Autor").isbn("666").build());
+        persistLoan(book, "Fulano", LocalDate.of(2024, 1, 10), true);
+        persistLoan(book, "Beltrano", LocalDate.of(2024, 2, 10), false);
+        persistLoan(book, "Ciclano", LocalDate.of(2024, 3, 10), false);
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> testEntityManager.flush());
+
+        // Validação
+        Assertions.assertThat(exception).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve devolver um empréstimo por id só quando ele ainda está aberto")
+    public void updateReturnedTest() {
+        // Cenário
+        Book book = testEntityManager.persist(Book.builder().title("A").author("Autor").isbn("777").build());
+        Loan loan = persistLoan(book, "Fulano", LocalDate.of(2024, 1, 10), false);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // Execução
+        Optional<TrackedLoan> returned = loanRepository.updateReturned(loan.getId(), true);
+        Optional<TrackedLoan> repeated = loanRepository.updateReturned(loan.getId(), true);
+        Optional<TrackedLoan> missing = loanRepository.updateReturned(-1L, true);
+
+        // Validação
+        Assertions.assertThat(returned).get().extracting(TrackedLoan::getIsbn).isEqualTo("777");
+        Assertions.assertThat(returned.get().getLoanDate()).isEqualTo(LocalDate.of(2024, 1, 10));
+        Assertions.assertThat(loanRepository.existsByBookAndNotReturned(book)).isFalse();
+        Assertions.assertThat(repeated).isEmpty();
+        Assertions.assertThat(missing).isEmpty();
+    }
+
+    private Loan persistLoan(Book book, String customer, LocalDate loanDate, boolean returned) {
+        return testEntityManager.persist(Loan.builder()
+                .book(book)
+                .customer(customer)
+                .loanDate(loanDate)
+                .returned(returned)
+                .build());
+    }
+}
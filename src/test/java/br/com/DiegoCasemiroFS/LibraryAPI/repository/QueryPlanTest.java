@@ -0,0 +1,75 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Confere, pelo EXPLAIN do H2, que as consultas quentes usam os índices
+ * criados pelas migrações em vez de varrer a tabela.
+ * <p>
+ * Sem {@code analyze}: no H2 ele faz commit da transação do teste e as linhas
+ * inseridas aqui sobreviveriam ao rollback, quebrando os outros testes do
+ * mesmo contexto.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+public class QueryPlanTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        for (long id = 1; id <= 200; id++) {
+            jdbcTemplate.update("insert into book (id, title, author, isbn, version) values (?, ?, ?, ?, 0)",
+                    id, "Livro " + id, "Autor", "isbn-" + id);
+            jdbcTemplate.update("insert into loan (id, customer, id_book, loan_date, returned) values (?, ?, ?, current_date, ?)",
+                    id, "Fulano", id, id % 10 != 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve buscar livro por isbn pelo índice único")
+    public void isbnLookupUsesUniqueIndexTest() {
+        String plan = explain("select b.id from book b where b.isbn = 'isbn-42'");
+
+        Assertions.assertThat(plan).containsIgnoringCase("UX_BOOK_ISBN").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    @DisplayName("Deve verificar empréstimo aberto do livro pelo índice composto")
+    public void openLoanLookupUsesCompositeIndexTest() {
+        String plan = explain("select count(l.id) from loan l where l.id_book = 42 and l.returned = false");
+
+        Assertions.assertThat(plan).containsIgnoringCase("IX_LOAN_BOOK_RETURNED").doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    @DisplayName("Deve recusar isbn repetido")
+    public void duplicateIsbnIsRejectedTest() {
+        Throwable exception = Assertions.catchThrowable(() -> jdbcTemplate.update(
+                "insert into book (id, title, author, isbn, version) values (1000, 'Outro', 'Autor', 'isbn-1', 0)"));
+
+        Assertions.assertThat(exception).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve gravar empréstimo novo como não devolvido por padrão")
+    public void returnedDefaultsToFalseTest() {
+        jdbcTemplate.update("insert into loan (id, customer, id_book, loan_date) values (1000, 'Fulano', 1, current_date)");
+
+        Boolean returned = jdbcTemplate.queryForObject("select returned from loan where id = 1000", Boolean.class);
+
+        Assertions.assertThat(returned).isFalse();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
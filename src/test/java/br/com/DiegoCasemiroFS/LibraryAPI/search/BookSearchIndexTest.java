@@ -0,0 +1,111 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.search;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+
+public class BookSearchIndexTest {
+
+    BookRepository bookRepository;
+
+    BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    public void setup() {
+        bookRepository = Mockito.mock(BookRepository.class);
+        Mockito.when(bookRepository.findNextById(Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<Book>(Arrays.asList(
+                        book(1L, "Memórias Póstumas de Brás Cubas", "Machado de Assis", "978-85-359-0277-1"),
+                        book(2L, "Dom Casmurro", "Machado de Assis", "978-85-7232-014-4"),
+                        book(3L, "O Cortiço", "Aluísio Azevedo", "978-85-08-13265-6"))));
+
+        bookSearchIndex = new BookSearchIndex(bookRepository);
+        bookSearchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Deve encontrar livros ignorando acentos e caixa")
+    public void searchIgnoringAccentsTest() {
+        Optional<BookSearchIndex.Hits> hits = bookSearchIndex.search(
+                Book.builder().title("MEMORIAS postumas").build(), PageRequest.of(0, 10));
+
+        Assertions.assertThat(hits).isPresent();
+        Assertions.assertThat(hits.get().getIds()).containsExactly(1L);
+        Assertions.assertThat(hits.get().getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve combinar os filtros e ordenar por relevância")
+    public void searchRankedTest() {
+        Optional<BookSearchIndex.Hits> hits = bookSearchIndex.search(
+                Book.builder().author("machado").title("dom").build(), PageRequest.of(0, 10));
+
+        Assertions.assertThat(hits.get().getIds()).containsExactly(2L);
+
+        hits = bookSearchIndex.search(Book.builder().author("mach").build(), PageRequest.of(0, 1));
+
+        Assertions.assertThat(hits.get().getIds()).containsExactly(1L);
+        Assertions.assertThat(hits.get().getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve casar título e autor só pelo início das palavras, ao contrário da busca no banco")
+    public void searchByTokenPrefixOnlyTest() {
+        Optional<BookSearchIndex.Hits> prefix = bookSearchIndex.search(
+                Book.builder().title("casm").build(), PageRequest.of(0, 10));
+        Optional<BookSearchIndex.Hits> infix = bookSearchIndex.search(
+                Book.builder().title("smurro").build(), PageRequest.of(0, 10));
+
+        Assertions.assertThat(prefix.get().getIds()).containsExactly(2L);
+        Assertions.assertThat(infix).isPresent();
+        Assertions.assertThat(infix.get().getIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve encontrar livros por trecho do isbn")
+    public void searchByIsbnFragmentTest() {
+        Optional<BookSearchIndex.Hits> hits = bookSearchIndex.search(
+                Book.builder().isbn("7232014").build(), PageRequest.of(0, 10));
+
+        Assertions.assertThat(hits.get().getIds()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Deve refletir inclusões, alterações e remoções")
+    public void keepUpToDateTest() {
+        bookSearchIndex.index(book(4L, "Dom Quixote", "Miguel de Cervantes", "978-85-359-1234-5"));
+        bookSearchIndex.index(book(2L, "Helena", "Machado de Assis", "978-85-7232-014-4"));
+        bookSearchIndex.remove(1L);
+
+        Assertions.assertThat(bookSearchIndex.search(Book.builder().title("dom").build(), PageRequest.of(0, 10))
+                .get().getIds()).containsExactly(4L);
+        Assertions.assertThat(bookSearchIndex.search(Book.builder().author("assis").build(), PageRequest.of(0, 10))
+                .get().getIds()).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Deve delegar ao banco quando a página for ordenada ou o filtro estiver vazio")
+    public void fallbackToDatabaseTest() {
+        Assertions.assertThat(bookSearchIndex.search(Book.builder().title("dom").build(),
+                PageRequest.of(0, 10, Sort.by("title")))).isEmpty();
+        Assertions.assertThat(bookSearchIndex.search(new Book(), PageRequest.of(0, 10))).isEmpty();
+        Assertions.assertThat(new BookSearchIndex(bookRepository)
+                .search(Book.builder().title("dom").build(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    private Book book(Long id, String title, String author, String isbn) {
+        return Book.builder().id(id).title(title).author(author).isbn(isbn).build();
+    }
+}
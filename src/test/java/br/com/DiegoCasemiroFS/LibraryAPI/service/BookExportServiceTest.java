@@ -0,0 +1,60 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookExportServiceTest {
+
+    @Autowired
+    BookExportService bookExportService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Test
+    @DisplayName("Deve exportar o catálogo em CSV")
+    public void exportCsvTest() throws Exception {
+        // Cenário
+        Book book = bookRepository.save(Book.builder().title("Título, volume 1").author("Autor").isbn("EXPCSV1").build());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Execução
+        long count = bookExportService.exportBooks(output, CatalogFormat.CSV);
+
+        // Validação
+        String csv = output.toString(StandardCharsets.UTF_8);
+        Assertions.assertThat(count).isEqualTo(bookRepository.count());
+        Assertions.assertThat(csv).startsWith("id,title,author,isbn\n");
+        Assertions.assertThat(csv).contains(book.getId() + ",\"Título, volume 1\",Autor,EXPCSV1\n");
+    }
+
+    @Test
+    @DisplayName("Deve exportar o catálogo em NDJSON, um livro por linha")
+    public void exportNdjsonTest() throws Exception {
+        // Cenário
+        Book book = bookRepository.save(Book.builder().title("Livro").author("Autor").isbn("EXPND1").build());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Execução
+        long count = bookExportService.exportBooks(output, CatalogFormat.NDJSON);
+
+        // Validação
+        String ndjson = output.toString(StandardCharsets.UTF_8);
+        Assertions.assertThat(ndjson.split("\n")).hasSize((int) count);
+        Assertions.assertThat(ndjson).contains("{\"id\":" + book.getId()
+                + ",\"title\":\"Livro\",\"author\":\"Autor\",\"isbn\":\"EXPND1\"}\n");
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.BookImportResultDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.CatalogFormat;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+
+@SpringBootTest(properties = "library.import.chunk-size=2")
+@ActiveProfiles("test")
+public class BookImportServiceTest {
+
+    @Autowired
+    BookImportService bookImportService;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Test
+    @DisplayName("Deve importar um catálogo NDJSON em lotes")
+    public void importNdjsonTest() {
+        // Cenário
+        String catalog = "{\"title\":\"Livro 1\",\"author\":\"Autor\",\"isbn\":\"imp-nd-1\"}\n"
+                + "{\"title\":\"Livro 2\",\"author\":\"Autor\",\"isbn\":\"imp-nd-2\"}\n"
+                + "\n"
+                + "{\"title\":\"Livro 3\",\"author\":\"Autor\",\"isbn\":\"imp-nd-3\"}\n";
+
+        // Execução
+        BookImportResultDto result = bookImportService.importBooks(stream(catalog), CatalogFormat.NDJSON);
+
+        // Validação
+        Assertions.assertThat(result.getReceived()).isEqualTo(3);
+        Assertions.assertThat(result.getImported()).isEqualTo(3);
+        Assertions.assertThat(result.getRejected()).isZero();
+        Assertions.assertThat(bookRepository.findByIsbn("imp-nd-3")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Deve importar um catálogo CSV rejeitando linhas inválidas e duplicadas")
+    public void importCsvTest() {
+        // Cenário
+        bookService.save(Book.builder().title("Existente").author("Autor").isbn("imp-csv-1").build());
+
+        String catalog = "isbn,title,author\n"
+                + "imp-csv-1,Duplicado no banco,Autor\n"
+                + "imp-csv-2,\"Título, com vírgula\",Autor\n"
+                + "imp-csv-2,Duplicado no arquivo,Autor\n"
+                + "imp-csv-3,,Autor\n"
+                + "imp-csv-4,\"Aspas abertas,Autor\n";
+
+        // Execução
+        BookImportResultDto result = bookImportService.importBooks(stream(catalog), CatalogFormat.CSV);
+
+        // Validação
+        Assertions.assertThat(result.getReceived()).isEqualTo(5);
+        Assertions.assertThat(result.getImported()).isEqualTo(1);
+        Assertions.assertThat(result.getRejected()).isEqualTo(4);
+        Assertions.assertThat(result.getErrors())
+                .extracting("line")
+                .containsExactlyInAnyOrder(2L, 4L, 5L, 6L);
+        Assertions.assertThat(bookRepository.findByIsbn("imp-csv-2"))
+                .get()
+                .extracting(Book::getTitle)
+                .isEqualTo("Título, com vírgula");
+    }
+
+    @Test
+    @DisplayName("Deve importar campos entre aspas com quebra de linha, como a exportação escreve")
+    public void importCsvMultilineTest() {
+        // Cenário
+        String catalog = "id,title,author,isbn\n"
+                + "1,\"Primeira linha\nsegunda \"\"linha\"\"\",Autor,imp-ml-1\n"
+                + "2,Simples,Autor,imp-ml-2\n";
+
+        // Execução
+        BookImportResultDto result = bookImportService.importBooks(stream(catalog), CatalogFormat.CSV);
+
+        // Validação
+        Assertions.assertThat(result.getImported()).isEqualTo(2);
+        Assertions.assertThat(bookRepository.findByIsbn("imp-ml-1"))
+                .get()
+                .extracting(Book::getTitle)
+                .isEqualTo("Primeira linha\nsegunda \"linha\"");
+    }
+
+    @Test
+    @DisplayName("Deve recusar só a linha que o banco recusar e gravar o resto do lote")
+    public void importChunkRowByRowTest() {
+        // Cenário: o título passa da coluna e derruba o batch do lote.
+        String catalog = "isbn,title,author\n"
+                + "imp-row-1,Livro 1,Autor\n"
+                + "imp-row-2," + "x".repeat(300) + ",Autor\n"
+                + "imp-row-3,Livro 3,Autor\n";
+
+        // Execução
+        BookImportResultDto result = bookImportService.importBooks(stream(catalog), CatalogFormat.CSV);
+
+        // Validação
+        Assertions.assertThat(result.getImported()).isEqualTo(2);
+        Assertions.assertThat(result.getRejected()).isEqualTo(1);
+        Assertions.assertThat(result.getErrors()).extracting("line").containsExactly(3L);
+        Assertions.assertThat(bookRepository.findByIsbn("imp-row-1")).isPresent();
+        Assertions.assertThat(bookRepository.findByIsbn("imp-row-3")).isPresent();
+        Assertions.assertThat(bookRepository.findByIsbn("imp-row-2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve recusar um CSV sem as colunas obrigatórias")
+    public void importCsvWithoutHeaderTest() {
+        Throwable exception = Assertions.catchThrowable(
+                () -> bookImportService.importBooks(stream("nome,autor\nA,B\n"), CatalogFormat.CSV));
+
+        Assertions.assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Cabeçalho CSV sem a coluna title.");
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,9 +2,11 @@ package br.com.DiegoCasemiroFS.LibraryAPI.service;
 
 import static org.mockito.Mockito.times;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,17 +15,26 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersion;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.BookVersionCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnBloomFilter;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnCache;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
 import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.search.BookSearchIndex;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.impl.BookServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ActiveProfiles("test")
 @ExtendWith(SpringExtension.class)
@@ -31,12 +42,28 @@ public class BookServiceTest {
 
     BookService bookService;
 
+    BookSearchIndex bookSearchIndex;
+
+    IsbnCache isbnCache;
+
+    IsbnBloomFilter isbnBloomFilter;
+
+    BookVersionCache bookVersionCache;
+
+    SimpleMeterRegistry meterRegistry;
+
     @MockBean
     BookRepository bookRepository;
 
     @BeforeEach
     public void setup() {
-        this.bookService = new BookServiceImpl(bookRepository);
+        this.bookSearchIndex = new BookSearchIndex(bookRepository);
+        this.isbnCache = new IsbnCache(1000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        this.isbnBloomFilter = new IsbnBloomFilter(1000, 0.01, bookRepository, new SimpleMeterRegistry());
+        this.bookVersionCache = new BookVersionCache(1000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.bookService = new BookServiceImpl(bookRepository, bookSearchIndex, isbnCache, isbnBloomFilter,
+                bookVersionCache, meterRegistry);
     }
 
     @Test
@@ -79,6 +106,8 @@ public class BookServiceTest {
         Assertions.assertThat(exception).isInstanceOf(BusinessException.class)
                 .hasMessage("Isbn já cadastrado. Favor chamar sua Gerência.");
         Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "duplicate_isbn").count())
+                .isEqualTo(1.0);
     }
 
     @Test
@@ -133,33 +162,51 @@ public class BookServiceTest {
     }
 
     @Test
-    @DisplayName("Deve atualizar um livro")
-    public void updateBook() {
-        long id = 1L;
-        Book updatingBook = Book.builder()
-                .id(id)
-                .build();
+    @DisplayName("Deve alterar um livro direto no banco e reindexá-lo sem carregá-lo antes")
+    public void patchBookTest() {
+        // Cenário
+        Book patched = Book.builder().id(1L).title("Novo titulo").author("Autor").isbn("123").version(1L).build();
+        bookVersionCache.put(BookVersion.of(Book.builder().id(1L).version(0L).build()));
+        Mockito.when(bookRepository.patch(1L, "Novo titulo", null)).thenReturn(Optional.of(patched));
+        Mockito.when(bookRepository.findNextById(Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<Book>(Arrays.asList()));
+        bookSearchIndex.rebuild();
 
-        Book updatedBook = createValidBook();
-        updatedBook.setId(id);
-        Mockito.when(bookRepository.save(updatingBook)).thenReturn(updatedBook);
+        // Execução
+        Optional<Book> book = bookService.patch(1L, Book.builder().title("Novo titulo").build());
+
+        // Validação
+        Assertions.assertThat(book).contains(patched);
+        Assertions.assertThat(bookVersionCache.getIfPresent(1L)).isNull();
+        Assertions.assertThat(bookSearchIndex.search(Book.builder().title("novo").build(), PageRequest.of(0, 10))
+                .get().getIds()).containsExactly(1L);
+        Mockito.verify(bookRepository, Mockito.never()).findById(1L);
+        Mockito.verify(bookRepository, Mockito.never()).save(Mockito.any(Book.class));
+    }
 
-        Book book = bookService.update(updatingBook);
+    @Test
+    @DisplayName("Deve devolver o livro sem alterá-lo quando o PATCH repetir os valores gravados")
+    public void repeatedPatchBookTest() {
+        // Cenário
+        Book current = Book.builder().id(1L).title("Titulo").author("Autor").isbn("123").version(1L).build();
+        Mockito.when(bookRepository.patch(1L, "Titulo", null)).thenReturn(Optional.empty());
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(current));
 
-        Assertions.assertThat(book.getId()).isEqualTo(updatedBook.getId());
-        Assertions.assertThat(book.getAuthor()).isEqualTo(updatedBook.getAuthor());
-        Assertions.assertThat(book.getTitle()).isEqualTo(updatedBook.getTitle());
-        Assertions.assertThat(book.getIsbn()).isEqualTo(updatedBook.getIsbn());
+        // Execução
+        Optional<Book> book = bookService.patch(1L, Book.builder().title("Titulo").build());
+
+        // Validação
+        Assertions.assertThat(book).contains(current);
     }
 
     @Test
-    @DisplayName("Deve ocorrer um erro ao atualizar um livro inexistente")
-    public void updateInvalidBook() {
-        Book book = new Book();
+    @DisplayName("Deve ocorrer um erro ao atualizar um livro sem id")
+    public void patchInvalidBook() {
+        Book changes = Book.builder().title("Titulo").build();
 
-        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> bookService.update(book));
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> bookService.patch(null, changes));
 
-        Mockito.verify(bookRepository, Mockito.never()).save(book);
+        Mockito.verify(bookRepository, Mockito.never()).patch(Mockito.any(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -185,13 +232,38 @@ public class BookServiceTest {
         Assertions.assertThat(result.getPageable().getPageSize()).isEqualTo(10);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Deve filtrar livros pelo índice de busca quando ele estiver carregado")
+    public void findBookByIndexTest() {
+        // Cenário
+        Mockito.when(bookRepository.findNextById(Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenReturn(new SliceImpl<Book>(Arrays.asList()));
+        bookSearchIndex.rebuild();
+
+        Book book = createValidBook();
+        book.setId(1L);
+        bookSearchIndex.index(book);
+
+        Mockito.when(bookRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(book));
+
+        // Execução
+        Page<Book> result = bookService.find(Book.builder().title("tit").build(), PageRequest.of(0, 10));
+
+        // Validação
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(1);
+        Assertions.assertThat(result.getContent()).containsExactly(book);
+        Mockito.verify(bookRepository, Mockito.never()).findAll(Mockito.any(Example.class), Mockito.any(Pageable.class));
+    }
+
     @Test
     @DisplayName("Deve obter um livro pelo isbn")
     public void getBookByIsbnTest() {
         // Cenário
         String isbn = "123456789";
-        Mockito.when(bookRepository.findByIsbn(isbn))
-                .thenReturn(Optional.of(Book.builder().id(1L).isbn(isbn).build()));
+        Book stored = Book.builder().id(1L).isbn(isbn).build();
+        Mockito.when(bookRepository.findByNaturalIsbn(isbn)).thenReturn(Optional.of(stored));
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(stored));
 
         // Execução
         Optional<Book> book = bookService.getBookByIsbn(isbn);
@@ -199,7 +271,136 @@ public class BookServiceTest {
         Assertions.assertThat(book.isPresent()).isTrue();
         Assertions.assertThat(book.get().getId()).isEqualTo(1L);
         Assertions.assertThat(book.get().getIsbn()).isEqualTo(isbn);
-        Mockito.verify(bookRepository, times(1)).findByIsbn(isbn);
+        Mockito.verify(bookRepository, times(1)).findByNaturalIsbn(isbn);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o isbn no banco uma única vez, inclusive quando não existir")
+    public void getBookByIsbnCachedTest() {
+        // Cenário
+        Book stored = Book.builder().id(1L).isbn("123-456-789").build();
+        Mockito.when(bookRepository.findByNaturalIsbn("123-456-789")).thenReturn(Optional.of(stored));
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(stored));
+        Mockito.when(bookRepository.findByNaturalIsbn("987654321")).thenReturn(Optional.empty());
+
+        // Execução
+        bookService.getBookByIsbn("123-456-789");
+        Optional<Book> book = bookService.getBookByIsbn("123456789");
+        bookService.getBookByIsbn("987654321");
+        Optional<Book> missing = bookService.getBookByIsbn("987654321");
+
+        // Validação
+        Assertions.assertThat(book.get().getId()).isEqualTo(1L);
+        Assertions.assertThat(missing.isPresent()).isFalse();
+        Mockito.verify(bookRepository, times(1)).findByNaturalIsbn("123-456-789");
+        Mockito.verify(bookRepository, Mockito.never()).findByNaturalIsbn("123456789");
+        Mockito.verify(bookRepository, times(1)).findByNaturalIsbn("987654321");
+    }
+
+    @Test
+    @DisplayName("Não deve devolver pelo isbn antigo um livro cujo isbn mudou")
+    public void getBookByIsbnChangedTest() {
+        // Cenário
+        Mockito.when(bookRepository.findByNaturalIsbn("123456789"))
+                .thenReturn(Optional.of(Book.builder().id(1L).isbn("123456789").build()));
+        Mockito.when(bookRepository.findById(1L))
+                .thenReturn(Optional.of(Book.builder().id(1L).isbn("123456789").build()))
+                .thenReturn(Optional.of(Book.builder().id(1L).isbn("555").build()));
+        bookService.getBookByIsbn("123456789");
+
+        // Execução
+        Optional<Book> book = bookService.getBookByIsbn("123456789");
+
+        // Validação
+        Assertions.assertThat(book.isPresent()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco antes de salvar mesmo com o isbn em cache como inexistente")
+    public void saveIgnoresNegativeCacheEntryTest() {
+        // Cenário
+        Mockito.when(bookRepository.findByNaturalIsbn("123456789")).thenReturn(Optional.empty());
+        bookService.getBookByIsbn("123456789");
+        Mockito.when(bookRepository.existsByIsbn("123456789")).thenReturn(true);
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(createValidBook()));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class)
+                .hasMessage("Isbn já cadastrado. Favor chamar sua Gerência.");
+        Mockito.verify(bookRepository).existsByIsbn("123456789");
+    }
+
+    @Test
+    @DisplayName("Deve invalidar a entrada negativa do cache ao salvar um livro")
+    public void saveInvalidatesCacheTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.findByNaturalIsbn("123456789")).thenReturn(Optional.empty());
+        bookService.getBookByIsbn("123456789");
+
+        Mockito.when(bookRepository.save(book)).thenReturn(Book.builder().id(1L).isbn("123456789").build());
+
+        // Execução
+        bookService.save(book);
+
+        // Validação
+        bookService.getBookByIsbn("123456789");
+        Mockito.verify(bookRepository, times(2)).findByNaturalIsbn("123456789");
+    }
+
+    @Test
+    @DisplayName("Deve lançar erro de negócio quando o índice único recusar um isbn gravado ao mesmo tempo")
+    public void saveDuplicatedIsbnRaceTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.existsByIsbn("123456789")).thenReturn(false);
+        Mockito.when(bookRepository.save(book)).thenThrow(new DataIntegrityViolationException("ux_book_isbn"));
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class)
+                .hasMessage("Isbn já cadastrado. Favor chamar sua Gerência.");
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "duplicate_isbn").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve gravar o isbn como foi informado")
+    public void saveKeepsIsbnAsGivenTest() {
+        // Cenário
+        Book book = Book.builder().title("Titulo").author("Autor").isbn("978-85-359-0277-5").build();
+        Mockito.when(bookRepository.streamAllIsbns()).thenReturn(Stream.empty());
+        isbnBloomFilter.load();
+        Mockito.when(bookRepository.save(book)).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Execução
+        Book savedBook = bookService.save(book);
+
+        // Validação
+        Assertions.assertThat(savedBook.getIsbn()).isEqualTo("978-85-359-0277-5");
+        Assertions.assertThat(isbnBloomFilter.mightContain("9788535902775")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve dispensar a consulta de isbn existente quando o filtro garantir que ele é novo")
+    public void saveSkipsExistsQueryWhenFilterSaysNoTest() {
+        // Cenário
+        Book book = createValidBook();
+        Mockito.when(bookRepository.streamAllIsbns()).thenReturn(Stream.of("111111111"));
+        isbnBloomFilter.load();
+
+        Mockito.when(bookRepository.save(book)).thenReturn(Book.builder().id(1L).isbn("123456789").build());
+
+        // Execução
+        bookService.save(book);
+
+        // Validação
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(Mockito.anyString());
+        Assertions.assertThat(isbnBloomFilter.mightContain("123456789")).isTrue();
     }
 
     private Book createValidBook() {
@@ -0,0 +1,161 @@
+package br.com.DiegoCasemiroFS.LibraryAPI.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
+import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LoanServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    LoanService loanService;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    LoanRepository loanRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        loanRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Não deve criar dois empréstimos para o mesmo livro sob concorrência")
+    public void noDoubleLoanTest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Book book = bookRepository.save(newBook("concorrencia-" + round));
+
+            List<Boolean> results = runConcurrently(THREADS, thread -> loan(book));
+
+            Assertions.assertThat(results.stream().filter(Boolean::booleanValue).count()).isEqualTo(1);
+            Assertions.assertThat(loanRepository.existsByBookAndNotReturned(book)).isTrue();
+            Assertions.assertThat(loanRepository.findAll().stream()
+                    .filter(loan -> loan.getBook().getId().equals(book.getId()))
+                    .count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Não deve criar dois empréstimos para o mesmo isbn sob checkouts concorrentes")
+    public void noDoubleCheckoutTest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Book book = bookRepository.save(newBook("CHECKOUT" + round));
+
+            List<Boolean> results = runConcurrently(THREADS, thread -> checkout(book));
+
+            Assertions.assertThat(results.stream().filter(Boolean::booleanValue).count()).isEqualTo(1);
+            Assertions.assertThat(loanRepository.findAll().stream()
+                    .filter(loan -> loan.getBook().getId().equals(book.getId()))
+                    .count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve emprestar livros diferentes em paralelo")
+    public void parallelLoansOfDifferentBooksTest() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            books.add(bookRepository.save(newBook("paralelo-" + i)));
+        }
+
+        List<Boolean> results = runConcurrently(THREADS, thread -> loan(books.get(thread)));
+
+        Assertions.assertThat(results).containsOnly(true);
+    }
+
+    @Test
+    @DisplayName("Não deve alterar a versão dos livros ao emprestá-los em lote")
+    public void saveAllKeepsBookVersionTest() {
+        // Cenário
+        Book book = bookRepository.save(newBook("LOTE-VERSAO"));
+
+        // Execução
+        loanService.saveAll(List.of(LoanDto.builder().isbn(book.getIsbn()).customer("Fulano").build()));
+
+        // Validação
+        Assertions.assertThat(bookRepository.findById(book.getId()).get().getVersion()).isEqualTo(book.getVersion());
+    }
+
+    private boolean loan(Book book) {
+        try {
+            loanService.save(Loan.builder()
+                    .book(Book.builder().id(book.getId()).build())
+                    .customer("Fulano")
+                    .loanDate(LocalDate.now())
+                    .build());
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    private boolean checkout(Book book) {
+        try {
+            loanService.checkout(LoanDto.builder().isbn(book.getIsbn()).customer("Fulano").build());
+            return true;
+        } catch (BusinessException e) {
+            return false;
+        }
+    }
+
+    private List<Boolean> runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                Callable<Boolean> callable = () -> {
+                    start.await();
+                    return task.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Book newBook(String isbn) {
+        return Book.builder().title("Titulo").author("Autor").isbn(isbn).build();
+    }
+
+    private interface ThreadTask {
+
+        boolean run(int thread);
+    }
+}
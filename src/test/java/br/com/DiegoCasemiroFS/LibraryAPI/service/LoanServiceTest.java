@@ -2,23 +2,45 @@ package br.com.DiegoCasemiroFS.LibraryAPI.service;
 
 import static org.mockito.Mockito.never;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.ActiveLoanIndex;
+import br.com.DiegoCasemiroFS.LibraryAPI.cache.IsbnCache;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchItemDto;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanBatchStatus;
+import br.com.DiegoCasemiroFS.LibraryAPI.dto.LoanDto;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Book;
 import br.com.DiegoCasemiroFS.LibraryAPI.entity.Loan;
 import br.com.DiegoCasemiroFS.LibraryAPI.repository.LoanRepository;
+import br.com.DiegoCasemiroFS.LibraryAPI.exception.BusinessException;
+import br.com.DiegoCasemiroFS.LibraryAPI.lock.BookLocks;
+import br.com.DiegoCasemiroFS.LibraryAPI.mapper.LoanMapper;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.OverdueLoanTracker;
+import br.com.DiegoCasemiroFS.LibraryAPI.overdue.TrackedLoan;
+import br.com.DiegoCasemiroFS.LibraryAPI.repository.BookRepository;
 import br.com.DiegoCasemiroFS.LibraryAPI.service.impl.LoanServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ActiveProfiles("test")
 @ExtendWith(SpringExtension.class)
@@ -29,9 +51,29 @@ public class LoanServiceTest {
     @MockBean
     private LoanRepository loanRepository;
 
+    @MockBean
+    private BookRepository bookRepository;
+
+    private ActiveLoanIndex activeLoanIndex;
+
+    private OverdueLoanTracker overdueLoanTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     public void setUp(){
-        this.loanService = new LoanServiceImpl(loanRepository);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.activeLoanIndex = new ActiveLoanIndex(loanRepository, new SimpleMeterRegistry());
+        this.overdueLoanTracker = new OverdueLoanTracker(loanRepository, event -> { }, new SimpleMeterRegistry(), 14);
+        this.loanService = new LoanServiceImpl(loanRepository, bookRepository,
+                new IsbnCache(1000, Duration.ofMinutes(10), new SimpleMeterRegistry()), activeLoanIndex,
+                Mappers.getMapper(LoanMapper.class), new BookLocks(16),
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), overdueLoanTracker, meterRegistry);
+
+        Mockito.when(bookRepository.findForCheckout(Mockito.anyLong()))
+                .thenAnswer(invocation -> Optional.of(Book.builder().id(invocation.getArgument(0)).build()));
+        Mockito.when(bookRepository.getReferenceById(Mockito.anyLong()))
+                .thenAnswer(invocation -> Book.builder().id(invocation.getArgument(0)).build());
     }
 
     @Test
@@ -83,6 +125,186 @@ public class LoanServiceTest {
 
         // Validação
         Mockito.verify(loanRepository, never()).save(savingLoan);
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "book_already_loaned").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve emprestar pelo isbn com um único comando e acompanhar o empréstimo criado")
+    public void checkoutTest() {
+        // Cenário
+        Mockito.when(loanRepository.streamOpenLoanBookIds()).thenReturn(Stream.empty());
+        activeLoanIndex.load();
+        LoanDto dto = LoanDto.builder().isbn("978851").customer("Fulano").customerEmail("fulano@email.com").build();
+        TrackedLoan created = new TrackedLoan(10L, 1L, "978851", "Fulano", "fulano@email.com",
+                LocalDate.now().minusDays(30));
+        Mockito.when(loanRepository.checkout("978851", "Fulano", "fulano@email.com", LocalDate.now()))
+                .thenReturn(Optional.of(created));
+
+        // Execução
+        TrackedLoan loan = loanService.checkout(dto);
+
+        // Validação
+        Assertions.assertThat(loan.getLoanId()).isEqualTo(10L);
+        Assertions.assertThat(activeLoanIndex.isLoaned(1L)).isTrue();
+        Assertions.assertThat(overdueLoanTracker.overdue()).hasSize(1);
+        Mockito.verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("Deve recusar o empréstimo pelo isbn de um livro inexistente")
+    public void checkoutBookNotFoundTest() {
+        // Cenário
+        Mockito.when(loanRepository.checkout(Mockito.eq("123"), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+        Mockito.when(bookRepository.existsByIsbn("123")).thenReturn(false);
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(
+                () -> loanService.checkout(LoanDto.builder().isbn("123").customer("Fulano").build()));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book not found for passed isbn");
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "book_not_found").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve recusar o empréstimo pelo isbn de um livro já emprestado")
+    public void checkoutLoanedBookTest() {
+        // Cenário
+        Mockito.when(loanRepository.checkout(Mockito.eq("123"), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.empty());
+        Mockito.when(loanRepository.checkout(Mockito.eq("456"), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("ux_loan_open_book"));
+        Mockito.when(bookRepository.existsByIsbn("123")).thenReturn(true);
+
+        // Execução
+        Throwable loaned = Assertions.catchThrowable(
+                () -> loanService.checkout(LoanDto.builder().isbn("123").customer("Fulano").build()));
+        Throwable concurrent = Assertions.catchThrowable(
+                () -> loanService.checkout(LoanDto.builder().isbn("456").customer("Fulano").build()));
+
+        // Validação
+        Assertions.assertThat(loaned).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+        Assertions.assertThat(concurrent).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "book_already_loaned").count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Deve recusar pelo índice em memória um segundo empréstimo pelo isbn sem ir ao banco")
+    public void checkoutLoanedBookFromIndexTest() {
+        // Cenário
+        Mockito.when(loanRepository.streamOpenLoanBookIds()).thenReturn(Stream.empty());
+        activeLoanIndex.load();
+        LoanDto dto = LoanDto.builder().isbn("978851").customer("Fulano").build();
+        Mockito.when(loanRepository.checkout(Mockito.eq("978851"), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Optional.of(new TrackedLoan(10L, 1L, "978851", "Fulano", null, LocalDate.now())));
+        loanService.checkout(dto);
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> loanService.checkout(dto));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+        Mockito.verify(loanRepository, Mockito.times(1))
+                .checkout(Mockito.eq("978851"), Mockito.any(), Mockito.any(), Mockito.any());
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "book_already_loaned").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve recusar o empréstimo pelo índice em memória sem consultar o banco")
+    public void loanedBookFromIndexTest() {
+        // Cenário
+        Mockito.when(loanRepository.streamOpenLoanBookIds()).thenReturn(Stream.of(1L));
+        activeLoanIndex.load();
+
+        Loan savingLoan = createLoan();
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> loanService.save(savingLoan));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+        Mockito.verify(loanRepository, never()).existsByBookAndNotReturned(Mockito.any(Book.class));
+        Mockito.verify(loanRepository, never()).save(savingLoan);
+    }
+
+    @Test
+    @DisplayName("Deve marcar o livro como emprestado e liberá-lo na devolução")
+    public void indexFollowsLoanAndReturnTest() {
+        // Cenário
+        Mockito.when(loanRepository.streamOpenLoanBookIds()).thenReturn(Stream.empty());
+        activeLoanIndex.load();
+
+        Loan loan = createLoan();
+        Mockito.when(loanRepository.save(loan)).thenReturn(loan);
+
+        // Execução
+        loanService.save(loan);
+        boolean loanedAfterSave = activeLoanIndex.isLoaned(1L);
+
+        loan.setReturned(true);
+        loanService.update(loan);
+
+        // Validação
+        Assertions.assertThat(loanedAfterSave).isTrue();
+        Assertions.assertThat(activeLoanIndex.isLoaned(1L)).isFalse();
+        Mockito.verify(loanRepository, Mockito.times(1)).existsByBookAndNotReturned(loan.getBook());
+    }
+
+    @Test
+    @DisplayName("Deve devolver um empréstimo direto no banco e liberar o livro")
+    public void updateReturnedTest() {
+        // Cenário
+        Mockito.when(loanRepository.streamOpenLoanBookIds()).thenReturn(Stream.of(1L));
+        activeLoanIndex.load();
+        TrackedLoan loan = new TrackedLoan(3L, 1L, "123", "Fulano", null, LocalDate.now().minusDays(30));
+        overdueLoanTracker.loaned(loan);
+        Mockito.when(loanRepository.updateReturned(3L, true)).thenReturn(Optional.of(loan));
+
+        // Execução
+        boolean updated = loanService.updateReturned(3L, true);
+
+        // Validação
+        Assertions.assertThat(updated).isTrue();
+        Assertions.assertThat(activeLoanIndex.isLoaned(1L)).isFalse();
+        Assertions.assertThat(overdueLoanTracker.overdue()).isEmpty();
+        Mockito.verify(loanRepository, never()).findById(Mockito.anyLong());
+        Mockito.verify(loanRepository, never()).save(Mockito.any(Loan.class));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar a devolução repetida e informar quando o empréstimo não existe")
+    public void repeatedUpdateReturnedTest() {
+        // Cenário
+        Mockito.when(loanRepository.updateReturned(Mockito.anyLong(), Mockito.eq(true))).thenReturn(Optional.empty());
+        Mockito.when(loanRepository.existsById(3L)).thenReturn(true);
+        Mockito.when(loanRepository.existsById(4L)).thenReturn(false);
+
+        // Execução
+        boolean repeated = loanService.updateReturned(3L, true);
+        boolean missing = loanService.updateReturned(4L, true);
+
+        // Validação
+        Assertions.assertThat(repeated).isTrue();
+        Assertions.assertThat(missing).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve recusar reabrir um empréstimo de livro que já foi emprestado de novo")
+    public void reopenLoanedBookTest() {
+        // Cenário
+        Mockito.when(loanRepository.updateReturned(3L, false))
+                .thenThrow(new DataIntegrityViolationException("ux_loan_open_book"));
+
+        // Execução
+        Throwable exception = Assertions.catchThrowable(() -> loanService.updateReturned(3L, false));
+
+        // Validação
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
     }
 
     @Test
@@ -93,7 +315,7 @@ public class LoanServiceTest {
         Loan loan = createLoan();
         loan.setId(id);
 
-        Mockito.when(loanRepository.findById(id)).thenReturn(Optional.of(loan));
+        Mockito.when(loanRepository.findWithBookById(id)).thenReturn(Optional.of(loan));
 
         // Execução
         Optional<Loan> result = loanService.getById(id);
@@ -103,7 +325,7 @@ public class LoanServiceTest {
         Assertions.assertThat(result.get().getBook()).isEqualTo(loan.getBook());
         Assertions.assertThat(result.get().getLoanDate()).isEqualTo(loan.getLoanDate());
 
-        Mockito.verify(loanRepository).findById(id);
+        Mockito.verify(loanRepository).findWithBookById(id);
 
     }
 
@@ -125,6 +347,147 @@ public class LoanServiceTest {
         Mockito.verify(loanRepository).save(loan);
     }
 
+    @Test
+    @DisplayName("Deve emprestar um lote de livros informando o resultado de cada item")
+    public void saveAllLoansTest() {
+        // Cenário
+        Book free = Book.builder().id(1L).isbn("111").build();
+        Book loaned = Book.builder().id(2L).isbn("222").build();
+        List<Book> books = Arrays.asList(free, loaned);
+
+        Mockito.when(bookRepository.findByIsbnIn(Mockito.anyCollection())).thenReturn(books);
+        Mockito.when(bookRepository.findExistingIds(Mockito.anyCollection())).thenReturn(Arrays.asList(1L, 2L));
+        Mockito.when(loanRepository.findOpenLoanBookIds(Mockito.anyCollection())).thenReturn(Arrays.asList(2L));
+        Mockito.when(loanRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            loans.forEach(loan -> loan.setId(10L));
+            return loans;
+        });
+
+        List<LoanDto> request = Arrays.asList(
+                LoanDto.builder().isbn("111").customer("Fulano").build(),
+                LoanDto.builder().isbn("222").customer("Fulano").build(),
+                LoanDto.builder().isbn("111").customer("Beltrano").build(),
+                LoanDto.builder().isbn("333").customer("Fulano").build());
+
+        // Execução
+        List<LoanBatchItemDto> result = loanService.saveAll(request);
+
+        // Validação
+        Assertions.assertThat(result)
+                .extracting(LoanBatchItemDto::getStatus)
+                .containsExactly(LoanBatchStatus.LOANED, LoanBatchStatus.ALREADY_LOANED,
+                        LoanBatchStatus.ALREADY_LOANED, LoanBatchStatus.BOOK_NOT_FOUND);
+        Assertions.assertThat(result.get(0).getLoanId()).isEqualTo(10L);
+        Mockito.verify(loanRepository).saveAll(Mockito.anyList());
+        Mockito.verify(loanRepository, never()).save(Mockito.any(Loan.class));
+        Mockito.verify(bookRepository, never()).findAllById(Mockito.anyIterable());
+    }
+
+    @Test
+    @DisplayName("Deve refazer o lote quando um checkout avulso emprestar um dos livros ao mesmo tempo")
+    public void saveAllLoansConcurrentCheckoutTest() {
+        // Cenário
+        Book book = Book.builder().id(1L).isbn("111").build();
+
+        Mockito.when(bookRepository.findByIsbnIn(Mockito.anyCollection())).thenReturn(Arrays.asList(book));
+        Mockito.when(bookRepository.findExistingIds(Mockito.anyCollection())).thenReturn(Arrays.asList(1L));
+        Mockito.when(loanRepository.findOpenLoanBookIds(Mockito.anyCollection()))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(Arrays.asList(1L));
+        Mockito.when(loanRepository.saveAll(Mockito.anyList()))
+                .thenThrow(new DataIntegrityViolationException("ux_loan_open_book"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Execução
+        List<LoanBatchItemDto> result = loanService.saveAll(
+                Arrays.asList(LoanDto.builder().isbn("111").customer("Fulano").build()));
+
+        // Validação
+        Assertions.assertThat(result)
+                .extracting(LoanBatchItemDto::getStatus)
+                .containsExactly(LoanBatchStatus.ALREADY_LOANED);
+        Mockito.verify(loanRepository, Mockito.times(2)).saveAll(Mockito.anyList());
+        Assertions.assertThat(meterRegistry.counter("library.rejections", "reason", "book_already_loaned").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve devolver um lote de livros com uma única atualização")
+    public void returnAllLoansTest() {
+        // Cenário
+        Book loaned = Book.builder().id(1L).isbn("111").build();
+        Book free = Book.builder().id(2L).isbn("222").build();
+        Loan openLoan = Loan.builder().id(5L).book(loaned).build();
+
+        Mockito.when(bookRepository.findByIsbnIn(Mockito.anyCollection())).thenReturn(Arrays.asList(loaned, free));
+        Mockito.when(loanRepository.findOpenByBookIds(Mockito.anyCollection())).thenReturn(Arrays.asList(openLoan));
+
+        // Execução
+        List<LoanBatchItemDto> result = loanService.returnAll(Arrays.asList("111", "222", "333"));
+
+        // Validação
+        Assertions.assertThat(result)
+                .extracting(LoanBatchItemDto::getStatus)
+                .containsExactly(LoanBatchStatus.RETURNED, LoanBatchStatus.NOT_LOANED, LoanBatchStatus.BOOK_NOT_FOUND);
+        Assertions.assertThat(result.get(0).getLoanId()).isEqualTo(5L);
+        Mockito.verify(loanRepository).markReturned(Arrays.asList(5L));
+    }
+
+    @Test
+    @DisplayName("Deve resolver pelo cache os isbns já encontrados em lotes anteriores")
+    public void resolveBookIdsCachedTest() {
+        // Cenário
+        Book loaned = Book.builder().id(1L).isbn("111").build();
+        Mockito.when(bookRepository.findByIsbnIn(Mockito.anyCollection())).thenReturn(Arrays.asList(loaned));
+        loanService.returnAll(Arrays.asList("111", "333"));
+
+        // Execução
+        List<LoanBatchItemDto> result = loanService.returnAll(Arrays.asList("111", "333"));
+
+        // Validação
+        Assertions.assertThat(result)
+                .extracting(LoanBatchItemDto::getStatus)
+                .containsExactly(LoanBatchStatus.NOT_LOANED, LoanBatchStatus.BOOK_NOT_FOUND);
+        Mockito.verify(bookRepository).findByIsbnIn(Set.of("111", "333"));
+        Mockito.verify(bookRepository).findByIsbnIn(Collections.singleton("333"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar lotes maiores que o limite")
+    public void batchTooLargeTest() {
+        List<String> isbns = Collections.nCopies(1001, "111");
+
+        Throwable exception = Assertions.catchThrowable(() -> loanService.returnAll(isbns));
+
+        Assertions.assertThat(exception).isInstanceOf(BusinessException.class);
+        Mockito.verify(bookRepository, never()).findByIsbnIn(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve acompanhar o prazo do empréstimo e esquecê-lo na devolução")
+    public void overdueTrackerFollowsLoanAndReturnTest() {
+        // Cenário
+        Loan loan = createLoan();
+        loan.setLoanDate(LocalDate.now().minusDays(30));
+        Loan savedLoan = createLoan();
+        savedLoan.setId(3L);
+        savedLoan.setLoanDate(loan.getLoanDate());
+        Mockito.when(loanRepository.save(loan)).thenReturn(savedLoan);
+
+        // Execução
+        loanService.save(loan);
+        int overdueAfterSave = overdueLoanTracker.overdue().size();
+
+        savedLoan.setReturned(true);
+        Mockito.when(loanRepository.save(savedLoan)).thenReturn(savedLoan);
+        loanService.update(savedLoan);
+
+        // Validação
+        Assertions.assertThat(overdueAfterSave).isEqualTo(1);
+        Assertions.assertThat(overdueLoanTracker.overdue()).isEmpty();
+    }
+
     public Loan createLoan() {
         Book book = Book.builder().id(1L).build();
         String customer = "Fulano";